@@ -0,0 +1,144 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.wire.OrderProtobufCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures Jackson serialization of order payloads with the same ObjectMapper setup Spring MVC uses, against the
+ * protobuf encoding served for {@code Accept: application/x-protobuf}. The serializing benchmarks also report the
+ * payload size, raw and gzipped, as secondary results, so sizes land in the JMH result file next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderResponseSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private ObjectWriter responseWriter;
+    private ObjectReader requestReader;
+    private OrderResponse response;
+    private byte[] requestJson;
+    private byte[] requestProtobuf;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(OrderResponse.class);
+        requestReader = objectMapper.readerFor(OrderRequest.class);
+
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ItemDto("Product " + i, i + 1));
+        }
+        response = new OrderResponse();
+        response.setOrderId(42L);
+        response.setCreatedAt(LocalDateTime.now());
+        response.setStatus(OrderStatus.PENDING);
+        response.setItems(items);
+
+        OrderRequest request = new OrderRequest();
+        request.setItems(items);
+        requestJson = objectMapper.writeValueAsBytes(request);
+        requestProtobuf = OrderProtobufCodec.encodeRequest(request);
+    }
+
+    /**
+     * Size in bytes of the JSON response, raw and gzipped. Sizes are measured once per trial, outside the timed
+     * calls, and reported through counter methods because JMH resets counter fields at every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class JsonPayloadSize {
+
+        private long bytes;
+        private long gzipBytes;
+
+        @Setup
+        public void measure(OrderResponseSerializationBenchmark benchmark) throws IOException {
+            byte[] payload = benchmark.responseWriter.writeValueAsBytes(benchmark.response);
+            bytes = payload.length;
+            gzipBytes = gzip(payload).length;
+        }
+
+        public long jsonBytes() {
+            return bytes;
+        }
+
+        public long jsonGzipBytes() {
+            return gzipBytes;
+        }
+    }
+
+    /**
+     * Size in bytes of the protobuf response, raw and gzipped. Sizes are measured once per trial, outside the timed
+     * calls, and reported through counter methods because JMH resets counter fields at every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ProtobufPayloadSize {
+
+        private long bytes;
+        private long gzipBytes;
+
+        @Setup
+        public void measure(OrderResponseSerializationBenchmark benchmark) throws IOException {
+            byte[] payload = OrderProtobufCodec.encodeResponse(benchmark.response);
+            bytes = payload.length;
+            gzipBytes = gzip(payload).length;
+        }
+
+        public long protobufBytes() {
+            return bytes;
+        }
+
+        public long protobufGzipBytes() {
+            return gzipBytes;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeResponse(JsonPayloadSize size) throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public OrderRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseProtobuf(ProtobufPayloadSize size) {
+        return OrderProtobufCodec.encodeResponse(response);
+    }
+
+    @Benchmark
+    public OrderRequest deserializeRequestProtobuf() {
+        return OrderProtobufCodec.decodeRequest(requestProtobuf);
+    }
+}
@@ -0,0 +1,63 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory conversions on the create and read paths, without any database access.
+ * Product names are resolved through plain maps standing in for a warm product catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private OrderRequest request;
+    private Order order;
+    private Map<String, Integer> productIds;
+    private Map<Integer, String> productNames;
+
+    @Setup
+    public void setUp() {
+        List<ItemDto> items = new ArrayList<>();
+        productIds = new HashMap<>();
+        productNames = new HashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ItemDto("Product " + i, i + 1));
+            productIds.put("Product " + i, i + 1);
+            productNames.put(i + 1, "Product " + i);
+        }
+        request = new OrderRequest();
+        request.setItems(items);
+
+        order = OrderMapper.toOrder(request, productIds);
+        order.setId(42L);
+        order.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public Order toOrder() {
+        return OrderMapper.toOrder(request, productIds);
+    }
+
+    @Benchmark
+    public OrderResponse toResponse() {
+        return OrderMapper.toResponse(order, productNames::get);
+    }
+}
@@ -0,0 +1,89 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.OrderProcessingSystemApplication;
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderPage;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full service calls, including JPA and JDBC, against the in-memory H2 database
+ * configured in the test application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private static final int SEEDED_ORDERS = 1000;
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderResponseCache orderResponseCache;
+    private OrderRequest request;
+    private Long existingOrderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderProcessingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.generate_statistics=false")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderResponseCache = context.getBean(OrderResponseCache.class);
+
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ItemDto("Product " + i, i + 1));
+        }
+        request = new OrderRequest();
+        request.setItems(items);
+
+        for (int i = 0; i < SEEDED_ORDERS; i++) {
+            existingOrderId = orderService.createOrder(request).getOrderId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(request);
+    }
+
+    @Benchmark
+    public OrderResponse getOrderByIdCached() {
+        return orderService.getOrderById(existingOrderId);
+    }
+
+    @Benchmark
+    public OrderResponse getOrderByIdUncached() {
+        orderResponseCache.invalidate(existingOrderId);
+        return orderService.getOrderById(existingOrderId);
+    }
+
+    @Benchmark
+    public OrderPage getAllOrdersFirstPage() {
+        return orderService.getAllOrders(Optional.empty(), null, 100);
+    }
+}
@@ -0,0 +1,38 @@
+package com.knighteye097.order_processing_system.validation;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the status parameter check that runs on every status update request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumValidatorBenchmark {
+
+    @EnumValidator(enumClass = OrderStatus.class)
+    private String annotatedStatus;
+
+    @Param({"PENDING", "CANCELLED", "INVALID"})
+    private String value;
+
+    private EnumValidatorConstraint constraint;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        constraint = new EnumValidatorConstraint();
+        constraint.initialize(EnumValidatorBenchmark.class.getDeclaredField("annotatedStatus")
+                .getAnnotation(EnumValidator.class));
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return constraint.isValid(value, null);
+    }
+}
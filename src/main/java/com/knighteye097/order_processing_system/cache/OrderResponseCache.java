@@ -0,0 +1,109 @@
+package com.knighteye097.order_processing_system.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded, read-through cache of order responses keyed by order ID.
+ * Entries are evicted by size and by age, and are invalidated once a status change has committed,
+ * so a read issued after a write returns never observes the old status. Entries are immutable snapshots
+ * and every read returns a fresh copy, so callers, event listeners and the outbox may modify the responses
+ * they hold without changing what the cache serves.
+ */
+@Component
+public class OrderResponseCache {
+
+    private final Cache<Long, CachedOrder> cache;
+
+    public OrderResponseCache(@Value("${orders.cache.max-size:10000}") long maxSize,
+                              @Value("${orders.cache.ttl:5m}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders.responses");
+    }
+
+    /**
+     * Returns the cached response for the order, loading it with {@code loader} on a miss.
+     * Concurrent misses for the same order share a single load.
+     */
+    public OrderResponse get(Long orderId, Function<Long, OrderResponse> loader) {
+        CachedOrder cached = cache.get(orderId, id -> CachedOrder.of(loader.apply(id)));
+        return cached == null ? null : cached.toResponse();
+    }
+
+    /**
+     * Returns the cached response for the order without loading it, or null if it is not cached.
+     */
+    public OrderResponse getIfPresent(Long orderId) {
+        CachedOrder cached = cache.getIfPresent(orderId);
+        return cached == null ? null : cached.toResponse();
+    }
+
+    public void put(OrderResponse response) {
+        cache.put(response.getOrderId(), CachedOrder.of(response));
+    }
+
+    public void invalidate(Long orderId) {
+        cache.invalidate(orderId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        put(event.order());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // Runs after commit, so a concurrent miss cannot reload the pre-commit status afterwards
+        invalidate(event.orderId());
+    }
+
+    private record CachedItem(String productName, int quantity) {
+    }
+
+    private record CachedOrder(Long orderId, LocalDateTime createdAt, OrderStatus status, List<CachedItem> items) {
+
+        static CachedOrder of(OrderResponse response) {
+            if (response == null) {
+                return null;
+            }
+            List<CachedItem> items = response.getItems() == null ? null : response.getItems().stream()
+                    .map(item -> new CachedItem(item.getProductName(), item.getQuantity()))
+                    .toList();
+            return new CachedOrder(response.getOrderId(), response.getCreatedAt(), response.getStatus(), items);
+        }
+
+        OrderResponse toResponse() {
+            OrderResponse response = new OrderResponse();
+            response.setOrderId(orderId);
+            response.setCreatedAt(createdAt);
+            response.setStatus(status);
+            if (items != null) {
+                List<ItemDto> copies = new ArrayList<>(items.size());
+                items.forEach(item -> copies.add(new ItemDto(item.productName(), item.quantity())));
+                response.setItems(copies);
+            }
+            return response;
+        }
+    }
+}
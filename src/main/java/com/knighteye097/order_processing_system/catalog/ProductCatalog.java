@@ -0,0 +1,161 @@
+package com.knighteye097.order_processing_system.catalog;
+
+import com.knighteye097.order_processing_system.entity.Product;
+import com.knighteye097.order_processing_system.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory dictionary between product names and the integer ids order items store instead of them.
+ * Products are only ever added, never renamed or removed, so an entry once cached never goes stale and
+ * a warm catalog answers every lookup without touching the database. Misses are resolved in one batched
+ * query; names seen for the first time are inserted in their own transaction, so that a product is only
+ * cached once it has committed and a concurrent insert of the same name by another instance is simply
+ * read back.
+ */
+@Slf4j
+@Component
+public class ProductCatalog {
+
+    private static final int MAX_RESOLVE_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    public ProductCatalog(ProductRepository productRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("orders.products.cached", namesById, Map::size)
+                .description("Products held in the in-memory product catalog")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the id of every given product name, creating products that do not exist yet.
+     * A null name has no product and is left out, so its items keep a null product id.
+     */
+    public Map<String, Integer> resolveIds(Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name == null) {
+                continue;
+            }
+            Integer id = idsByName.get(name);
+            if (id != null) {
+                ids.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+        for (int attempt = 1; !missing.isEmpty(); attempt++) {
+            try {
+                // A fresh transaction per attempt also gives a fresh snapshot, in which a product committed
+                // by a competing insert is visible even under repeatable read
+                newTransactionTemplate.executeWithoutResult(status -> remember(findOrCreate(missing), ids, missing));
+            } catch (DataIntegrityViolationException ex) {
+                if (attempt == MAX_RESOLVE_ATTEMPTS) {
+                    throw new ConcurrencyFailureException("Products " + missing + " could not be created after "
+                            + MAX_RESOLVE_ATTEMPTS + " attempts.", ex);
+                }
+                log.debug("Products {} were created concurrently, reading them back", missing, ex);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the id of an existing product, without creating it when the name is unknown.
+     */
+    public Optional<Integer> findId(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        return productRepository.findByName(name).map(product -> {
+            cache(product.getId(), product.getName());
+            return product.getId();
+        });
+    }
+
+    private List<Product> findOrCreate(Set<String> names) {
+        List<Product> products = new ArrayList<>(productRepository.findByNameIn(names));
+        Set<String> found = new HashSet<>();
+        products.forEach(product -> found.add(product.getName()));
+        List<Product> created = names.stream()
+                .filter(name -> !found.contains(name))
+                .map(Product::new)
+                .toList();
+        if (!created.isEmpty()) {
+            products.addAll(productRepository.saveAllAndFlush(created));
+        }
+        return products;
+    }
+
+    private void remember(List<Product> products, Map<String, Integer> ids, Set<String> missing) {
+        for (Product product : products) {
+            cache(product.getId(), product.getName());
+            ids.put(product.getName(), product.getId());
+            missing.remove(product.getName());
+        }
+    }
+
+    /**
+     * Returns the names of the given products, loading the ones not cached yet in a single query.
+     * Null ids, left by items whose product name was null before the catalog existed, are skipped.
+     */
+    public Map<Integer, String> namesOf(Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : ids) {
+            if (id == null) {
+                continue;
+            }
+            String name = namesById.get(id);
+            if (name != null) {
+                names.put(id, name);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                cache(product.getId(), product.getName());
+                names.put(product.getId(), product.getName());
+            }
+        }
+        return names;
+    }
+
+    private void cache(Integer id, String name) {
+        namesById.put(Objects.requireNonNull(id), name);
+        idsByName.put(name, id);
+    }
+}
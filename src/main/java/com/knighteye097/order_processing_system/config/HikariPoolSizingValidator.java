@@ -0,0 +1,35 @@
+package com.knighteye097.order_processing_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.time.Duration;
+
+/**
+ * Rejects connection pool settings that do not suit virtual threads.
+ * With virtual threads the servlet container no longer caps concurrency, so the pool becomes the
+ * only throttle in front of MySQL. It should stay small (roughly cores x 2 of the database host)
+ * and callers should fail fast rather than park for Hikari's default 30 seconds when it is exhausted.
+ */
+public class HikariPoolSizingValidator {
+
+    private final int maxPoolSize;
+    private final Duration maxConnectionTimeout;
+
+    public HikariPoolSizingValidator(int maxPoolSize, Duration maxConnectionTimeout) {
+        this.maxPoolSize = maxPoolSize;
+        this.maxConnectionTimeout = maxConnectionTimeout;
+    }
+
+    public void validate(HikariDataSource dataSource) {
+        if (dataSource.getMaximumPoolSize() > maxPoolSize) {
+            throw new IllegalStateException("maximum-pool-size of pool " + dataSource.getPoolName() + " is "
+                    + dataSource.getMaximumPoolSize() + " but must not exceed " + maxPoolSize
+                    + " when virtual threads are enabled (see orders.virtual-threads.max-pool-size)");
+        }
+        if (dataSource.getConnectionTimeout() > maxConnectionTimeout.toMillis()) {
+            throw new IllegalStateException("connection-timeout of pool " + dataSource.getPoolName() + " is "
+                    + dataSource.getConnectionTimeout() + "ms but must not exceed " + maxConnectionTimeout.toMillis()
+                    + "ms when virtual threads are enabled (see orders.virtual-threads.max-connection-timeout)");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.knighteye097.order_processing_system.config;
+
+import com.knighteye097.order_processing_system.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Extra wiring for the virtual-thread execution mode ({@code spring.threads.virtual.enabled=true}).
+ * Spring Boot already runs Tomcat requests, {@code @Scheduled} jobs and async MVC work on virtual threads
+ * in that mode; this configuration guards the connection pool sizing and reports thread pinning.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public HikariPoolSizingValidator hikariPoolSizingValidator(
+            DataSource dataSource,
+            @Value("${orders.virtual-threads.max-pool-size:50}") int maxPoolSize,
+            @Value("${orders.virtual-threads.max-connection-timeout:5s}") Duration maxConnectionTimeout)
+            throws SQLException {
+        HikariPoolSizingValidator validator = new HikariPoolSizingValidator(maxPoolSize, maxConnectionTimeout);
+        // With a read replica the routing data source only unwraps to the primary, so check each pool behind it
+        List<DataSource> pools = dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)
+                ? dataSource.unwrap(ReadWriteRoutingDataSource.class).targets()
+                : List.of(dataSource);
+        for (DataSource pool : pools) {
+            if (pool.isWrapperFor(HikariDataSource.class)) {
+                validator.validate(pool.unwrap(HikariDataSource.class));
+            }
+        }
+        return validator;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${orders.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+}
@@ -0,0 +1,62 @@
+package com.knighteye097.order_processing_system.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Listens for the JFR {@code jdk.VirtualThreadPinned} event and records each occurrence as metrics.
+ * A pinned virtual thread holds on to its carrier while blocked, typically because it blocked inside a
+ * {@code synchronized} block, for example around a JDBC call, which defeats the point of virtual threads.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Counter pinnedCount;
+    private final Timer pinnedDuration;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinnedCount = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Time virtual threads spent blocked while pinned")
+                .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        // Timed before counted, so a reader that sees the count also sees the duration
+        pinnedDuration.record(event.getDuration());
+        pinnedCount.increment();
+        if (log.isDebugEnabled() && event.getStackTrace() != null) {
+            RecordedFrame top = event.getStackTrace().getFrames().stream().findFirst().orElse(null);
+            log.debug("Virtual thread pinned for {} at {}", event.getDuration(),
+                    top == null ? "unknown" : top.getMethod().getType().getName() + "." + top.getMethod().getName());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -1,44 +1,216 @@
 package com.knighteye097.order_processing_system.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.knighteye097.order_processing_system.dto.BatchOrderResult;
+import com.knighteye097.order_processing_system.dto.OrderIntakeStatus;
+import com.knighteye097.order_processing_system.dto.OrderPage;
 import com.knighteye097.order_processing_system.dto.OrderRequest;
 import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
 import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.exception.InvalidBatchException;
+import com.knighteye097.order_processing_system.exception.TrackingIdNotFoundException;
+import com.knighteye097.order_processing_system.idempotency.IdempotencyStore;
+import com.knighteye097.order_processing_system.intake.OrderIntakeQueue;
+import com.knighteye097.order_processing_system.ratelimit.RateLimitTier;
+import com.knighteye097.order_processing_system.ratelimit.RateLimited;
 import com.knighteye097.order_processing_system.service.OrderService;
+import com.knighteye097.order_processing_system.subscription.OrderStatusSubscriptions;
 import com.knighteye097.order_processing_system.validation.EnumValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @Validated
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String PREFER_HEADER = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    public static final String RESPOND_ASYNC = "respond-async";
+    public static final int MAX_BATCH_SIZE = 10000;
+
     private final OrderService orderService;
+    private final OrderStatusSubscriptions orderStatusSubscriptions;
+    private final IdempotencyStore idempotencyStore;
+    private final Optional<OrderIntakeQueue> orderIntakeQueue;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectReader ndjsonOrderReader;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderStatusSubscriptions orderStatusSubscriptions,
+                           IdempotencyStore idempotencyStore,
+                           Optional<OrderIntakeQueue> orderIntakeQueue,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderStatusSubscriptions = orderStatusSubscriptions;
+        this.idempotencyStore = idempotencyStore;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.ndjsonWriter = objectMapper.writer();
+        this.ndjsonOrderReader = objectMapper.readerFor(OrderRequest.class);
     }
 
     @PostMapping
-    @Operation(summary = "Create a new order")
-    @ApiResponse(responseCode = "201", description = "Order created successfully")
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody @Valid OrderRequest orderRequest) {
-        OrderResponse createdOrder = orderService.createOrder(orderRequest);
-        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+    @Operation(summary = "Create a new order",
+            description = "Send an " + IDEMPOTENCY_KEY_HEADER + " header to make retries safe: a repeated request with the "
+                    + "same key returns the original order, marked with the " + IDEMPOTENT_REPLAYED_HEADER + " header.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Order created successfully"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request")
+    })
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestBody @Valid OrderRequest orderRequest,
+            @Parameter(description = "Client-generated key identifying this request across retries")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+            @Size(min = 1, max = 255, message = "Idempotency key must be between 1 and 255 characters") String idempotencyKey) {
+        if (idempotencyKey == null) {
+            OrderResponse createdOrder = orderService.createOrder(orderRequest);
+            return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+        }
+        IdempotencyStore.Result result = idempotencyStore.execute(idempotencyKey, orderRequest,
+                () -> orderService.createOrder(orderRequest));
+        HttpHeaders headers = new HttpHeaders();
+        if (result.replayed()) {
+            headers.set(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return new ResponseEntity<>(result.response(), headers, HttpStatus.CREATED);
+    }
+
+    @PostMapping(headers = PREFER_HEADER)
+    @Operation(summary = "Accept a new order for asynchronous creation",
+            description = "With the intake queue enabled, the order is validated and durably queued, and a tracking id is "
+                    + "returned immediately. Poll the Location header for the outcome. Without the intake queue, or with an "
+                    + IDEMPOTENCY_KEY_HEADER + " header, or when " + PREFER_HEADER + " does not include "
+                    + RESPOND_ASYNC + ", the order is created synchronously as if " + PREFER_HEADER + " had not been sent.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Order accepted for creation"),
+            @ApiResponse(responseCode = "201", description = "Order created synchronously"),
+            @ApiResponse(responseCode = "429", description = "Intake queue full, retry after the Retry-After delay")
+    })
+    public ResponseEntity<?> acceptOrder(
+            @RequestBody @Valid OrderRequest orderRequest,
+            @Parameter(description = "Client-generated key identifying this request across retries")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+            @Size(min = 1, max = 255, message = "Idempotency key must be between 1 and 255 characters") String idempotencyKey,
+            @Parameter(description = "Preferences such as " + RESPOND_ASYNC + ", possibly with others like wait=5")
+            @RequestHeader(PREFER_HEADER) List<String> preferences) {
+        if (orderIntakeQueue.isEmpty() || idempotencyKey != null || !prefersAsync(preferences)) {
+            return createOrder(orderRequest, idempotencyKey);
+        }
+        OrderIntakeStatus status = orderIntakeQueue.get().submit(orderRequest);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + status.getTrackingId()))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(status);
+    }
+
+    /**
+     * Whether the Prefer header values include respond-async. Each value may hold several comma-separated
+     * preferences, each a case-insensitive token optionally followed by "=value" and ";parameters".
+     */
+    private static boolean prefersAsync(List<String> preferences) {
+        return preferences.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(preference -> preference.split("[=;]", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+
+    @GetMapping("/intake/{trackingId}")
+    @RateLimited(RateLimitTier.CHEAP)
+    @Operation(summary = "Get the outcome of an order accepted for asynchronous creation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "QUEUED, CREATED with the order ID, or REJECTED"),
+            @ApiResponse(responseCode = "404", description = "Unknown tracking ID")
+    })
+    public ResponseEntity<OrderIntakeStatus> getIntakeStatus(
+            @Parameter(description = "Tracking ID returned when the order was accepted")
+            @PathVariable String trackingId) {
+        OrderIntakeStatus status = orderIntakeQueue
+                .flatMap(queue -> queue.status(trackingId))
+                .orElseThrow(() -> new TrackingIdNotFoundException(trackingId));
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "Create many orders from a JSON array",
+            description = "Orders are validated and committed independently; the response holds one result per order.")
+    @ApiResponse(responseCode = "200", description = "Batch processed, see per-order results")
+    public ResponseEntity<List<BatchOrderResult>> createOrders(
+            @RequestBody
+            @Size(min = 1, max = MAX_BATCH_SIZE, message = "Batch must contain between 1 and " + MAX_BATCH_SIZE + " orders")
+            List<OrderRequest> orderRequests) {
+        return new ResponseEntity<>(orderService.createOrders(orderRequests), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "Create many orders from newline-delimited JSON",
+            description = "Orders are validated and committed independently; the response holds one result per order.")
+    @ApiResponse(responseCode = "200", description = "Batch processed, see per-order results")
+    public ResponseEntity<List<BatchOrderResult>> createOrdersFromNdjson(HttpServletRequest request) throws IOException {
+        List<OrderRequest> orderRequests = new ArrayList<>();
+        try (InputStream body = request.getInputStream();
+             MappingIterator<OrderRequest> lines = ndjsonOrderReader.readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (orderRequests.size() == MAX_BATCH_SIZE) {
+                    throw new InvalidBatchException("Batch must contain at most " + MAX_BATCH_SIZE + " orders");
+                }
+                orderRequests.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException ex) {
+            // Mapping errors raised outside the parser carry no location
+            String line = ex.getLocation() != null ? " at line " + ex.getLocation().getLineNr() : "";
+            throw new HttpMessageNotReadableException("Malformed order" + line, ex, new ServletServerHttpRequest(request));
+        }
+        if (orderRequests.isEmpty()) {
+            throw new InvalidBatchException("Batch must contain at least one order");
+        }
+        return new ResponseEntity<>(orderService.createOrders(orderRequests), HttpStatus.OK);
     }
 
     @GetMapping("/{orderId}")
+    @RateLimited(RateLimitTier.CHEAP)
     @Operation(summary = "Get order details by order ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order details retrieved successfully"),
@@ -53,20 +225,138 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
+    @GetMapping("/{orderId}/history")
+    @RateLimited(RateLimitTier.CHEAP)
+    @Operation(summary = "Get the status history of an order",
+            description = "Every status change since the order was created, oldest first. Each change is recorded "
+                    + "atomically with the transition that made it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order history retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public ResponseEntity<List<OrderStatusHistoryEntry>> getOrderHistory(
+            @Parameter(description = "Order ID")
+            @PathVariable
+            @Pattern(regexp = "\\d+", message = "OrderId must be a valid number") String orderId) {
+        return new ResponseEntity<>(orderService.getOrderHistory(Long.valueOf(orderId)), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to status changes of an order",
+            description = "Server-Sent Events stream that sends the current status first, then every committed status change. "
+                    + "The stream completes once the order is DELIVERED or CANCELLED.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Subscription opened"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public SseEmitter subscribeToOrderStatus(
+            @Parameter(description = "Order ID")
+            @PathVariable
+            @Pattern(regexp = "\\d+", message = "OrderId must be a valid number") String orderId) {
+        Long id = Long.valueOf(orderId);
+        return orderStatusSubscriptions.subscribe(id, () -> orderService.getOrderById(id).getStatus());
+    }
+
     @GetMapping
-    @Operation(summary = "List all orders, optionally filtered by status")
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "List orders page by page, optionally filtered by status",
+            description = "The cursor for the next page is returned in the " + NEXT_CURSOR_HEADER
+                    + " header, which is absent on the last page.")
     public ResponseEntity<List<OrderResponse>> getAllOrders(
+            @Parameter(description = "Filter by order status")
+            @RequestParam Optional<OrderStatus> status,
+            @Parameter(description = "Opaque cursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of orders to return")
+            @RequestParam(defaultValue = "100")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000") int limit) {
+        return toPageResponse(orderService.getAllOrders(status, cursor, limit));
+    }
+
+    @GetMapping("/search")
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "Search orders page by page by creation time, status, product and item count",
+            description = "Every filter is optional and the given filters must all match. The cursor for the next page "
+                    + "is returned in the " + NEXT_CURSOR_HEADER + " header, which is absent on the last page.")
+    public ResponseEntity<List<OrderResponse>> searchOrders(
+            @Parameter(description = "Created at or after this time (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Created before this time (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Order statuses to match; repeat the parameter for several")
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @Parameter(description = "Only orders containing this product")
+            @RequestParam(required = false) String product,
+            @Parameter(description = "Only orders with at least this many items")
+            @RequestParam(required = false)
+            @Min(value = 1, message = "MinItems must be at least 1") Integer minItems,
+            @Parameter(description = "Opaque cursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of orders to return")
+            @RequestParam(defaultValue = "100")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000") int limit) {
+        OrderSearchCriteria criteria = new OrderSearchCriteria(createdFrom, createdTo, status, product, minItems);
+        return toPageResponse(orderService.searchOrders(criteria, cursor, limit));
+    }
+
+    private static ResponseEntity<List<OrderResponse>> toPageResponse(OrderPage page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getOrders(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/stats")
+    @RateLimited(RateLimitTier.CHEAP)
+    @Operation(summary = "Get order counts per status and item quantities per product for today",
+            description = "Served from incrementally maintained counters that are periodically reconciled with the database.")
+    public ResponseEntity<OrderStats> getOrderStats() {
+        return new ResponseEntity<>(orderService.getOrderStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/stats/time-in-status")
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "Get percentiles of the time orders spent in a status",
+            description = "Covers the orders that left the status within the window, which defaults to the last 24 hours.")
+    public ResponseEntity<StatusDurationReport> getTimeInStatus(
+            @Parameter(description = "Status to report on")
+            @RequestParam(defaultValue = "PENDING") OrderStatus status,
+            @Parameter(description = "Start of the window, inclusive (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(description = "End of the window, exclusive (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        LocalDateTime end = until != null ? until : LocalDateTime.now();
+        LocalDateTime start = since != null ? since : end.minusHours(24);
+        return new ResponseEntity<>(orderService.getTimeInStatus(status, start, end), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @Operation(summary = "Stream all orders as newline-delimited JSON, optionally filtered by status")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             @Parameter(description = "Filter by order status")
             @RequestParam Optional<OrderStatus> status) {
-        List<OrderResponse> orders = orderService.getAllOrders(status);
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+        StreamingResponseBody body = out -> orderService.exportOrders(status, order -> {
+            try {
+                out.write(ndjsonWriter.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PutMapping("/{orderId}")
     @Operation(summary = "Update order status")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Order status updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Order not found")
+            @ApiResponse(responseCode = "400", description = "Transition not allowed from the order's current status"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "Order kept changing concurrently, retry the request")
     })
     public ResponseEntity<Void> updateOrderStatus(
             @Parameter(description = "Order ID")
@@ -0,0 +1,86 @@
+package com.knighteye097.order_processing_system.datasource;
+
+import com.knighteye097.order_processing_system.ratelimit.PoolWaitMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool ({@code spring.datasource.*}) and a replica pool
+ * ({@code orders.datasource.replica.*}) behind a {@link ReadWriteRoutingDataSource}. Active only when
+ * {@code orders.datasource.replica.url} is set; without it every query goes to the primary as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "orders.datasource.replica", name = "url")
+public class ReadReplicaRoutingConfig {
+
+    /**
+     * Owns both pools so they are closed on shutdown; they are deliberately not {@code DataSource} beans,
+     * which would make the routing data source ambiguous for injection.
+     */
+    record Pools(HikariDataSource primary, HikariDataSource replica) implements AutoCloseable {
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+
+    @Bean
+    Pools readWritePools(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                         ObjectProvider<PoolWaitMonitor> poolWaitMonitor) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        MetricsTrackerFactory primaryMetrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        // Only the primary is watched for load shedding: it is the pool that order creation depends on
+        PoolWaitMonitor monitor = poolWaitMonitor.getIfAvailable();
+        primary.setMetricsTrackerFactory(monitor == null
+                ? primaryMetrics
+                : monitor.track(primaryMetrics, primary::getConnectionTimeout));
+
+        // The replica inherits the primary's credentials and pool settings unless overridden
+        HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setJdbcUrl(environment.getRequiredProperty("orders.datasource.replica.url"));
+        replica.setUsername(environment.getProperty("orders.datasource.replica.username", primary.getUsername()));
+        replica.setPassword(environment.getProperty("orders.datasource.replica.password", primary.getPassword()));
+        binder.bind("orders.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return new Pools(primary, replica);
+    }
+
+    @Bean
+    public DataSource dataSource(Pools pools, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(pools.primary(), pools.replica(), meterRegistry));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${orders.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${orders.datasource.replica.max-tracked-clients:100000}") long maxClients,
+            @Value("${orders.client-header:X-Api-Key}") String clientHeader) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(clientHeader, window, maxClients));
+    }
+}
@@ -0,0 +1,103 @@
+package com.knighteye097.order_processing_system.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ * The decision is made when a connection is requested, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: transaction managers acquire
+ * their connection before the transaction is marked read-only. Every decision is counted in
+ * {@value #ROUTING_METER}, tagged with the chosen {@code target} and the {@code reason}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    static final String ROUTING_METER = "orders.datasource.routing";
+
+    enum Route {
+        WRITE("primary", "write"),
+        READ_ONLY("replica", "read-only"),
+        READ_YOUR_WRITES("primary", "read-your-writes");
+
+        private final String target;
+        private final String reason;
+
+        Route(String target, String reason) {
+            this.target = target;
+            this.reason = reason;
+        }
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Map<Route, Counter> decisions = new EnumMap<>(Route.class);
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        for (Route route : Route.values()) {
+            decisions.put(route, Counter.builder(ROUTING_METER)
+                    .description("Connections handed out per target database")
+                    .tag("target", route.target)
+                    .tag("reason", route.reason)
+                    .register(meterRegistry));
+        }
+    }
+
+    static Route currentRoute() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.WRITE;
+        }
+        return ReadYourWritesContext.isPinnedToPrimary() ? Route.READ_YOUR_WRITES : Route.READ_ONLY;
+    }
+
+    private DataSource route() {
+        Route route = currentRoute();
+        decisions.get(route).increment();
+        return route == Route.READ_ONLY ? replica : primary;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route().getConnection(username, password);
+    }
+
+    /**
+     * Returns the primary and the replica, for checks that must cover every pool rather than the one
+     * {@link #unwrap} reaches.
+     */
+    public List<DataSource> targets() {
+        return List.of(primary, replica);
+    }
+
+    /**
+     * Unwraps to the primary, which is the pool that pool sizing checks and metrics binders care about first.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
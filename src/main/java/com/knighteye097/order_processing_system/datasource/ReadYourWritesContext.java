@@ -0,0 +1,25 @@
+package com.knighteye097.order_processing_system.datasource;
+
+/**
+ * Marks the current thread as serving a client that must read its own writes, which keeps its
+ * read-only transactions on the primary until {@link #clear()}.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+}
@@ -0,0 +1,66 @@
+package com.knighteye097.order_processing_system.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Gives each client read-your-writes consistency over an asynchronous replica: while a client's mutating
+ * request runs and for {@code window} after it completes, its reads are pinned to the primary. The window
+ * should exceed the replica's usual lag. Clients are identified as the rate limiter identifies them, by the
+ * {@code orders.client-header} header, falling back to their remote address.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS =
+            Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final String clientHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(String clientHeader, Duration window, long maxClients) {
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientId(request);
+        boolean mutating = !SAFE_METHODS.contains(request.getMethod());
+        if (mutating) {
+            // Recorded before the write runs, so no later read can slip in before the client is pinned
+            recentWriters.put(client, Boolean.TRUE);
+        }
+        if (recentWriters.getIfPresent(client) != null) {
+            ReadYourWritesContext.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.clear();
+            if (mutating) {
+                // Restarts the window once the write has committed, however long it ran
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String header = request.getHeader(clientHeader);
+        // Prefixed so that a header value cannot stand for another client's address
+        return header == null || header.isBlank() ? "address:" + request.getRemoteAddr() : "key:" + header;
+    }
+}
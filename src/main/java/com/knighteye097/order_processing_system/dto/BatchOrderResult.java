@@ -0,0 +1,22 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderResult {
+    private int index;
+    private Long orderId;
+    private String error;
+
+    public static BatchOrderResult created(int index, Long orderId) {
+        return new BatchOrderResult(index, orderId, null);
+    }
+
+    public static BatchOrderResult rejected(int index, String error) {
+        return new BatchOrderResult(index, null, error);
+    }
+}
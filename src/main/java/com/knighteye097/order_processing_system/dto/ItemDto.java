@@ -1,11 +1,13 @@
 package com.knighteye097.order_processing_system.dto;
 
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemDto {
+    @Size(max = 255, message = "Product name must be at most 255 characters")
     private String productName;
     private int quantity;
 }
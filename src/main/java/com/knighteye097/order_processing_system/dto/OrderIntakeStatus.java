@@ -0,0 +1,32 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeStatus {
+
+    public enum State {
+        QUEUED, CREATED, REJECTED
+    }
+
+    private String trackingId;
+    private State state;
+    private Long orderId;
+    private String error;
+
+    public static OrderIntakeStatus queued(String trackingId) {
+        return new OrderIntakeStatus(trackingId, State.QUEUED, null, null);
+    }
+
+    public static OrderIntakeStatus created(String trackingId, Long orderId) {
+        return new OrderIntakeStatus(trackingId, State.CREATED, orderId, null);
+    }
+
+    public static OrderIntakeStatus rejected(String trackingId, String error) {
+        return new OrderIntakeStatus(trackingId, State.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.knighteye097.order_processing_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<OrderResponse> orders;
+    private String nextCursor;
+}
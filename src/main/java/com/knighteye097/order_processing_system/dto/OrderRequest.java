@@ -1,5 +1,6 @@
 package com.knighteye097.order_processing_system.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
 
@@ -8,5 +9,5 @@ import java.util.List;
 @Data
 public class OrderRequest {
     @NotEmpty(message = "Order must contain at least one item")
-    private List<ItemDto> items;
+    private List<@Valid ItemDto> items;
 }
\ No newline at end of file
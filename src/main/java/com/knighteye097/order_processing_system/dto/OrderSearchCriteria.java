@@ -0,0 +1,23 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filters for an order search. Every field is optional and the filters that are set must all match.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchCriteria {
+    // Inclusive lower bound on the creation time
+    private LocalDateTime createdFrom;
+    // Exclusive upper bound on the creation time
+    private LocalDateTime createdTo;
+    private Set<OrderStatus> statuses;
+    private String productName;
+    private Integer minItems;
+}
@@ -0,0 +1,18 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStats {
+    private Map<OrderStatus, Long> ordersByStatus;
+    private LocalDate day;
+    private Map<String, Long> itemsByProduct;
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,17 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderStatusHistoryEntry {
+    private OrderStatus from;
+    private OrderStatus to;
+    private LocalDateTime changedAt;
+}
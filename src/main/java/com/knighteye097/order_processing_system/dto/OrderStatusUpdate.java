@@ -0,0 +1,12 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdate {
+    private Long orderId;
+    private OrderStatus status;
+}
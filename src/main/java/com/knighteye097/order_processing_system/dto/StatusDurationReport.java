@@ -0,0 +1,24 @@
+package com.knighteye097.order_processing_system.dto;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How long orders stayed in a status before leaving it, over the orders that left it within a time window.
+ * Durations are in milliseconds and are null when no order left the status in the window.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusDurationReport {
+    private OrderStatus status;
+    private LocalDateTime since;
+    private LocalDateTime until;
+    private long orders;
+    private Long p50Millis;
+    private Long p90Millis;
+    private Long p99Millis;
+    private Long maxMillis;
+}
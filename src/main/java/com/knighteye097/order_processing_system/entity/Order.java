@@ -9,23 +9,42 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders_table")
+@Table(name = "orders_table", indexes = {
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_created_at", columnList = "created_at"),
+        @Index(name = "uk_orders_intake_id", columnList = "intake_id", unique = true)
+})
 public class Order {
 
+    // Pooled table ids keep JDBC insert batching available, which IDENTITY columns disable
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_generator")
+    @TableGenerator(name = "order_id_generator", table = "id_generator",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "orders_table", allocationSize = 50)
     private Long id;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Enumerated(EnumType.STRING)
+    @Column(name = "status")
     private OrderStatus status;
 
+    // Tracking id handed out when the order was accepted through the intake queue, null otherwise
+    @Column(name = "intake_id", length = 36)
+    private String intakeId;
+
+    // Items never change after creation, so the count is kept here for searches to filter on
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items;
 
     @PrePersist
     public void prePersist() {
         this.createdAt = LocalDateTime.now();
+        this.itemCount = items != null ? items.size() : 0;
     }
 }
@@ -7,25 +7,38 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id"),
+        @Index(name = "idx_order_items_product_id", columnList = "product_id"),
+        @Index(name = "idx_order_items_product_order", columnList = "product_id, order_id"),
+        @Index(name = "idx_order_items_stock_pending", columnList = "stock_pending")
+})
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_generator")
+    @TableGenerator(name = "order_item_id_generator", table = "id_generator",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "order_items", allocationSize = 500)
     private Long id;
 
-    @Column(name = "product_name")
-    private String productName;
+    // References products.id; names are resolved through the in-memory ProductCatalog rather than a join
+    @Column(name = "product_id")
+    private Integer productId;
 
     @Column(name = "quantity")
     private int quantity;
 
+    // Null unless the product was stock-managed; true until the reservation has been written back to inventory
+    @Column(name = "stock_pending")
+    private Boolean stockPending;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
-    public OrderItem(String productName, int quantity) {
-        this.productName = productName;
+    public OrderItem(Integer productId, int quantity) {
+        this.productId = productId;
         this.quantity = quantity;
     }
 }
@@ -1,9 +1,70 @@
 package com.knighteye097.order_processing_system.entity;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     PROCESSING,
     SHIPPED,
     DELIVERED,
-    CANCELLED
+    CANCELLED;
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Integer> DEPTHS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(PROCESSING, CANCELLED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : values()) {
+            SOURCES.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        TRANSITIONS.forEach((from, targets) -> targets.forEach(to -> SOURCES.get(to).add(from)));
+        TRANSITIONS.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+        SOURCES.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+        for (OrderStatus status : values()) {
+            DEPTHS.put(status, depthOf(status));
+        }
+    }
+
+    private static int depthOf(OrderStatus status) {
+        return SOURCES.get(status).stream().mapToInt(source -> depthOf(source) + 1).max().orElse(0);
+    }
+
+    /**
+     * Returns whether an order with this status may move to the given status.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * Returns the statuses from which an order may move to this status, in declaration order.
+     */
+    public Set<OrderStatus> sources() {
+        return SOURCES.get(this);
+    }
+
+    /**
+     * Returns the number of transitions on the longest path from a status without sources to this one.
+     * Every allowed transition increases it, so it orders the status changes of a single order as they happened.
+     */
+    public int depth() {
+        return DEPTHS.get(this);
+    }
+
+    /**
+     * Returns whether no further status change is expected once an order has this status.
+     */
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
 }
@@ -0,0 +1,56 @@
+package com.knighteye097.order_processing_system.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_published_at_id", columnList = "published_at, id"),
+        @Index(name = "idx_order_outbox_order_unpublished", columnList = "order_id, published_at, order_sequence")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_outbox_id_generator")
+    @TableGenerator(name = "order_outbox_id_generator", table = "id_generator",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "order_outbox", allocationSize = 500)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Position of the event among the events of its order; ids are allocated in blocks per instance and do not say that
+    @Column(name = "order_sequence", nullable = false)
+    private int orderSequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private OutboxEventType eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "longtext")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent(Long orderId, int orderSequence, OutboxEventType eventType, String payload) {
+        this.orderId = orderId;
+        this.orderSequence = orderSequence;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.knighteye097.order_processing_system.entity;
+
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED
+}
@@ -0,0 +1,24 @@
+package com.knighteye097.order_processing_system.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "products", uniqueConstraints = @UniqueConstraint(name = "uk_products_name", columnNames = "name"))
+public class Product {
+
+    // New products are rare once the catalog is warm, so the lack of insert batching with IDENTITY does not matter
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    public Product(String name) {
+        this.name = name;
+    }
+}
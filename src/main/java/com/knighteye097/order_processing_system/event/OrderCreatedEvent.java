@@ -0,0 +1,11 @@
+package com.knighteye097.order_processing_system.event;
+
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+
+/**
+ * Published for every order that is created, whether on its own or as part of a batch.
+ *
+ * @param order the created order
+ */
+public record OrderCreatedEvent(OrderResponse order) {
+}
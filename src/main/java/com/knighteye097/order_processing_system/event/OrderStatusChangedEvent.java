@@ -0,0 +1,14 @@
+package com.knighteye097.order_processing_system.event;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+
+/**
+ * Published whenever an order moves from one status to another, whether the change
+ * comes from a single-order update or from a bulk transition run by the scheduler.
+ *
+ * @param orderId the ID of the order whose status changed
+ * @param from    the status the order had before the change
+ * @param to      the status the order has after the change
+ */
+public record OrderStatusChangedEvent(Long orderId, OrderStatus from, OrderStatus to) {
+}
@@ -1,13 +1,19 @@
 // File: src/main/java/com/knighteye097/order_processing_system/exception/GlobalExceptionHandler.java
 package com.knighteye097.order_processing_system.exception;
 
+import com.knighteye097.order_processing_system.wire.OrderProtobufHttpMessageConverter;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +30,41 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(404).body(error);
     }
 
+    /**
+     * Event stream clients only accept text/event-stream, which cannot carry the JSON error body.
+     */
+    @ExceptionHandler(exception = OrderNotFoundException.class, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Void> handleOrderNotFoundForEventStream() {
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(TrackingIdNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleTrackingIdNotFound(TrackingIdNotFoundException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 404);
+        return ResponseEntity.status(404).body(error);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursor(InvalidCursorException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 400);
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidBatch(InvalidBatchException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 400);
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Map<String, Object>> handleConstraintViolation(ConstraintViolationException ex) {
         Map<String, Object> error = new HashMap<>();
@@ -42,6 +83,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", "Malformed request body: " + ex.getMessage());
+        error.put("status", 400);
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Map<String, Object>> handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
         Map<String, Object> error = new HashMap<>();
@@ -60,6 +110,89 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 422);
+        return ResponseEntity.unprocessableEntity().body(error);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 409);
+        return ResponseEntity.status(409).body(error);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 409);
+        return ResponseEntity.status(409).body(error);
+    }
+
+    @ExceptionHandler(IntakeQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleIntakeQueueFull(IntakeQueueFullException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 429);
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 429);
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloaded(ServiceOverloadedException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", 503);
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    /**
+     * Streaming and protobuf clients do not accept the JSON error body, so they get the status and Retry-After alone.
+     */
+    @ExceptionHandler(exception = {RateLimitExceededException.class, ServiceOverloadedException.class},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE})
+    public ResponseEntity<Void> handleThrottledWithoutBody(RuntimeException ex) {
+        if (ex instanceof RateLimitExceededException rateLimited) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(rateLimited.getRetryAfter()))
+                    .build();
+        }
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(((ServiceOverloadedException) ex).getRetryAfter()))
+                .build();
+    }
+
+    /**
+     * Rounds up to whole seconds, so that a client retrying exactly when told is not refused again.
+     */
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, retryAfter.plusNanos(999_999_999).toSeconds()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleOtherExceptions(Exception ex) {
         Map<String, Object> error = new HashMap<>();
@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String key) {
+        super("Idempotency key " + key + " was already used with a different request.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.knighteye097.order_processing_system.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String productName, long requested, long available) {
+        super("Insufficient stock for " + productName + ": requested " + requested + ", available " + available + ".");
+    }
+}
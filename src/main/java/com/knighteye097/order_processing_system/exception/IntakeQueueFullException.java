@@ -0,0 +1,17 @@
+package com.knighteye097.order_processing_system.exception;
+
+import java.time.Duration;
+
+public class IntakeQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IntakeQueueFullException(Duration retryAfter) {
+        super("Order intake queue is full, retry later.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.exception;
+
+public class InvalidBatchException extends RuntimeException {
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Cursor " + cursor + " is not valid.");
+    }
+}
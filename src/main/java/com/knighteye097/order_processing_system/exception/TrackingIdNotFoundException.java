@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.exception;
+
+public class TrackingIdNotFoundException extends RuntimeException {
+    public TrackingIdNotFoundException(String trackingId) {
+        super("No order accepted with tracking ID " + trackingId + ".");
+    }
+}
@@ -0,0 +1,154 @@
+package com.knighteye097.order_processing_system.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.exception.IdempotencyKeyConflictException;
+import com.knighteye097.order_processing_system.repository.IdempotencyKeyRepository;
+import com.knighteye097.order_processing_system.repository.IdempotencyKeyRepository.StoredResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates order creation requests by their Idempotency-Key.
+ * The first request with a key runs; a retry with the same key gets the original response back without
+ * creating anything, and duplicates arriving while the first is still running wait for its result
+ * instead of inserting again. Keys are held in a bounded in-memory cache and, when
+ * {@code orders.idempotency.persistent=true}, also in the idempotency_keys table. Requests are compared by
+ * the SHA-256 of their JSON with properties in alphabetical order, which does not depend on the field order
+ * of the instance that stored it.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final ObjectWriter CANONICAL_JSON = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build()
+            .writer();
+
+    private final Cache<String, Entry> entries;
+    private final Optional<IdempotencyKeyRepository> idempotencyKeyRepository;
+    private final Duration ttl;
+
+    public IdempotencyStore(@Value("${orders.idempotency.max-size:10000}") long maxSize,
+                            @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+                            Optional<IdempotencyKeyRepository> idempotencyKeyRepository) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key has already run or is running.
+     *
+     * @param key     the client-supplied idempotency key
+     * @param request the request guarded by the key; reusing a key for a different request is rejected
+     * @param action  creates the order
+     * @return the response of the request that ran, and whether it is being replayed
+     * @throws IdempotencyKeyConflictException if the key was used for a different request
+     */
+    public Result execute(String key, OrderRequest request, Supplier<OrderResponse> action) {
+        Entry entry = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            return new Result(await(key, request, existing), true);
+        }
+        try {
+            Result result = runOnce(key, entry.requestHash(), action);
+            entry.response().complete(result.response());
+            return result;
+        } catch (RuntimeException ex) {
+            // Let a later retry run again rather than replay the failure, and release the duplicates waiting on it
+            entries.asMap().remove(key, entry);
+            entry.response().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Result runOnce(String key, byte[] requestHash, Supplier<OrderResponse> action) {
+        Optional<StoredResponse> stored = idempotencyKeyRepository.flatMap(repository -> repository.findByKey(key));
+        if (stored.isPresent()) {
+            checkSameRequest(key, requestHash, stored.get().requestHash());
+            return new Result(stored.get().response(), true);
+        }
+        try {
+            OrderResponse response = idempotencyKeyRepository
+                    .map(repository -> repository.executeAndRecord(key, requestHash, action))
+                    .orElseGet(action);
+            return new Result(response, false);
+        } catch (DuplicateKeyException ex) {
+            // Another instance recorded the key first and our order was rolled back with the insert
+            StoredResponse winner = idempotencyKeyRepository.orElseThrow().findByKey(key).orElseThrow(() -> ex);
+            checkSameRequest(key, requestHash, winner.requestHash());
+            return new Result(winner.response(), true);
+        }
+    }
+
+    private OrderResponse await(String key, OrderRequest request, Entry existing) {
+        checkSameRequest(key, fingerprint(request), existing.requestHash());
+        try {
+            return existing.response().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static void checkSameRequest(String key, byte[] requestHash, byte[] storedHash) {
+        if (!MessageDigest.isEqual(requestHash, storedHash)) {
+            throw new IdempotencyKeyConflictException(key);
+        }
+    }
+
+    static byte[] fingerprint(OrderRequest request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(CANONICAL_JSON.writeValueAsBytes(request));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:3600000}")
+    public void purgeExpired() {
+        idempotencyKeyRepository.ifPresent(repository -> {
+            int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            log.debug("Purged {} expired idempotency keys", purged);
+        });
+    }
+
+    /**
+     * @param response the response of the request that ran
+     * @param replayed whether the response belongs to an earlier request with the same key
+     */
+    public record Result(OrderResponse response, boolean replayed) {
+    }
+
+    private record Entry(byte[] requestHash, CompletableFuture<OrderResponse> response) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.knighteye097.order_processing_system.intake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Enables the asynchronous order intake queue when {@code orders.intake.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.intake.enabled", havingValue = "true")
+public class OrderIntakeConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OrderIntakeQueue orderIntakeQueue(OrderService orderService,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${orders.intake.log-dir:data/intake}") Path logDir,
+                                             @Value("${orders.intake.capacity:10000}") int capacity,
+                                             @Value("${orders.intake.batch-size:100}") int batchSize,
+                                             @Value("${orders.intake.workers:2}") int workers,
+                                             @Value("${orders.intake.retry-after:1s}") Duration retryAfter,
+                                             @Value("${orders.intake.status-retention:1h}") Duration statusRetention)
+            throws IOException {
+        return new OrderIntakeQueue(orderService, new OrderIntakeLog(logDir, objectMapper),
+                capacity, batchSize, workers, retryAfter, statusRetention, meterRegistry);
+    }
+}
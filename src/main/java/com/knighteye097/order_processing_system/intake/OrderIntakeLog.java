@@ -0,0 +1,156 @@
+package com.knighteye097.order_processing_system.intake;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-ahead log of the orders accepted by the intake queue. An order is appended and forced to disk before it is
+ * acknowledged, and marked done once it has been committed to the database, so the orders that were accepted but
+ * never persisted can be recovered after a crash. Concurrent appends share a single {@code fsync} where they can.
+ * The file is truncated whenever no accepted order is outstanding, which keeps it as small as the queue.
+ * <p>
+ * Each line is either {@code A<TAB>trackingId<TAB>order JSON} or {@code D<TAB>trackingId}.
+ */
+@Slf4j
+public class OrderIntakeLog implements Closeable {
+
+    static final String FILE_NAME = "order-intake.log";
+
+    private static final String ACCEPTED = "A";
+    private static final String DONE = "D";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ObjectWriter orderWriter;
+    private final ObjectReader orderReader;
+
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private long written;
+    private int outstanding;
+    private long synced;
+    private final List<QueuedOrder> recovered;
+
+    public OrderIntakeLog(Path directory, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.orderWriter = objectMapper.writerFor(OrderRequest.class);
+        this.orderReader = objectMapper.readerFor(OrderRequest.class);
+        this.recovered = recover();
+    }
+
+    /**
+     * Returns the orders that were accepted but never marked done when the log was opened, in the order they were
+     * accepted.
+     */
+    List<QueuedOrder> recovered() {
+        return recovered;
+    }
+
+    private List<QueuedOrder> recover() throws IOException {
+        Map<String, QueuedOrder> pending = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length == 3 && ACCEPTED.equals(fields[0])) {
+                    try {
+                        pending.put(fields[1], new QueuedOrder(fields[1], orderReader.readValue(fields[2])));
+                    } catch (JsonProcessingException ex) {
+                        // Only the last line can be torn, by a crash in the middle of an append that was never acknowledged
+                        log.warn("Skipping unreadable intake log entry for {}", fields[1]);
+                    }
+                } else if (fields.length == 2 && DONE.equals(fields[0])) {
+                    pending.remove(fields[1]);
+                }
+            }
+        }
+        synchronized (writeLock) {
+            outstanding = pending.size();
+            if (outstanding == 0) {
+                channel.truncate(0);
+            }
+        }
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * Appends an accepted order and returns once it is on disk.
+     */
+    void append(QueuedOrder order) throws IOException {
+        String line = ACCEPTED + "\t" + order.trackingId() + "\t" + orderWriter.writeValueAsString(order.request()) + "\n";
+        long end;
+        synchronized (writeLock) {
+            write(line);
+            outstanding++;
+            end = written;
+        }
+        sync(end);
+    }
+
+    /**
+     * Marks orders as persisted. Not forced to disk: if the marks are lost, the orders are replayed and skipped as
+     * duplicates by their tracking id.
+     */
+    void markDone(Collection<String> trackingIds) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        trackingIds.forEach(trackingId -> lines.append(DONE).append('\t').append(trackingId).append('\n'));
+        synchronized (writeLock) {
+            outstanding -= trackingIds.size();
+            if (outstanding == 0) {
+                channel.truncate(0);
+            } else {
+                write(lines.toString());
+            }
+        }
+    }
+
+    private void write(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk unless another thread's force already covered {@code upTo}.
+     */
+    private void sync(long upTo) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= upTo) {
+                return;
+            }
+            long target;
+            synchronized (writeLock) {
+                target = written;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,264 @@
+package com.knighteye097.order_processing_system.intake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.knighteye097.order_processing_system.dto.OrderIntakeStatus;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.exception.IntakeQueueFullException;
+import com.knighteye097.order_processing_system.exception.InsufficientStockException;
+import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accept-then-persist intake for orders. {@link #submit(OrderRequest)} records the order in the
+ * {@link OrderIntakeLog} and returns a tracking id without touching the database; worker threads drain the queue
+ * in batches through {@link OrderService#createQueuedOrders(Map)}. The queue is bounded: once {@code capacity}
+ * orders are outstanding, new ones are refused with {@link IntakeQueueFullException}.
+ * <p>
+ * Transient database failures are retried with backoff for as long as they last, holding the batch and its capacity,
+ * so an outage turns into backpressure instead of lost orders. Any other failure is not retried: the order causing
+ * it is isolated from its batch and reported as {@link OrderIntakeStatus.State#REJECTED}, so it neither pins a
+ * worker nor is replayed on every restart.
+ */
+@Slf4j
+public class OrderIntakeQueue {
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
+    private final OrderService orderService;
+    private final OrderIntakeLog intakeLog;
+    private final Semaphore capacity;
+    private final BlockingQueue<QueuedOrder> queue = new LinkedBlockingQueue<>();
+    private final Cache<String, OrderIntakeStatus> statuses;
+    private final int batchSize;
+    private final int workerCount;
+    private final Duration retryAfter;
+    private final Counter throttled;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public OrderIntakeQueue(OrderService orderService,
+                            OrderIntakeLog intakeLog,
+                            int capacity,
+                            int batchSize,
+                            int workerCount,
+                            Duration retryAfter,
+                            Duration statusRetention,
+                            MeterRegistry meterRegistry) {
+        if (capacity < 1 || batchSize < 1 || workerCount < 1) {
+            throw new IllegalArgumentException("orders.intake capacity, batch-size and workers must be positive");
+        }
+        this.orderService = orderService;
+        this.intakeLog = intakeLog;
+        this.capacity = new Semaphore(capacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfter(new OutcomeExpiry(statusRetention))
+                .build();
+        this.batchSize = batchSize;
+        this.workerCount = workerCount;
+        this.retryAfter = retryAfter;
+        this.throttled = Counter.builder("orders.intake.throttled")
+                .description("Orders refused because the intake queue was full")
+                .register(meterRegistry);
+        Gauge.builder("orders.intake.queued", queue, BlockingQueue::size)
+                .description("Accepted orders waiting to be persisted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the workers and re-queues the orders that were accepted but not persisted before the last shutdown.
+     */
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "order-intake-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        List<QueuedOrder> recovered = intakeLog.recovered();
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} accepted orders from the intake log", recovered.size());
+        }
+        for (QueuedOrder order : recovered) {
+            // Blocks while the workers make room when the log holds more orders than the queue's capacity
+            capacity.acquireUninterruptibly();
+            statuses.put(order.trackingId(), OrderIntakeStatus.queued(order.trackingId()));
+            queue.add(order);
+        }
+    }
+
+    /**
+     * Durably accepts an order for asynchronous creation.
+     *
+     * @return the QUEUED status carrying the tracking id
+     * @throws IntakeQueueFullException if {@code capacity} orders are already waiting
+     */
+    public OrderIntakeStatus submit(OrderRequest request) {
+        if (!capacity.tryAcquire()) {
+            throttled.increment();
+            throw new IntakeQueueFullException(retryAfter);
+        }
+        QueuedOrder order = new QueuedOrder(UUID.randomUUID().toString(), request);
+        try {
+            intakeLog.append(order);
+        } catch (IOException ex) {
+            capacity.release();
+            throw new UncheckedIOException("Could not record accepted order", ex);
+        }
+        OrderIntakeStatus status = OrderIntakeStatus.queued(order.trackingId());
+        statuses.put(order.trackingId(), status);
+        queue.add(order);
+        return status;
+    }
+
+    /**
+     * Returns what became of an accepted order. A queued order is known until it completes; outcomes are then
+     * remembered for {@code statusRetention}, after which created orders are still found by their tracking id.
+     */
+    public Optional<OrderIntakeStatus> status(String trackingId) {
+        OrderIntakeStatus status = statuses.getIfPresent(trackingId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        return orderService.findOrderIdByTrackingId(trackingId)
+                .map(orderId -> OrderIntakeStatus.created(trackingId, orderId));
+    }
+
+    private void drain() {
+        List<QueuedOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                QueuedOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<QueuedOrder> batch) throws InterruptedException {
+        Duration backoff = INITIAL_BACKOFF;
+        while (running) {
+            try {
+                Map<String, OrderRequest> requests = new LinkedHashMap<>();
+                batch.forEach(order -> requests.put(order.trackingId(), order.request()));
+                Map<String, Long> orderIds = orderService.createQueuedOrders(requests);
+                batch.forEach(order -> statuses.put(order.trackingId(),
+                        OrderIntakeStatus.created(order.trackingId(), orderIds.get(order.trackingId()))));
+                complete(batch);
+                return;
+            } catch (RuntimeException ex) {
+                if (isTransient(ex)) {
+                    log.warn("Could not persist {} queued orders, retrying in {} ms", batch.size(), backoff.toMillis(), ex);
+                    Thread.sleep(backoff.toMillis());
+                    backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+                    continue;
+                }
+                if (batch.size() > 1) {
+                    // Isolate the order that cannot be persisted so it does not hold back the rest of the batch
+                    for (QueuedOrder order : batch) {
+                        persist(List.of(order));
+                    }
+                    return;
+                }
+                QueuedOrder order = batch.get(0);
+                log.warn("Rejecting queued order {}", order.trackingId(), ex);
+                String error = ex instanceof InsufficientStockException ? ex.getMessage() : "Order could not be persisted";
+                statuses.put(order.trackingId(), OrderIntakeStatus.rejected(order.trackingId(), error));
+                complete(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether a failure may go away on its own, such as a lost connection, a lock timeout or a deadlock.
+     * Anything else would fail the same way on every attempt, and on every replay after a restart.
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof CannotGetJdbcConnectionException
+                || ex instanceof TransactionException;
+    }
+
+    private void complete(List<QueuedOrder> batch) {
+        try {
+            intakeLog.markDone(batch.stream().map(QueuedOrder::trackingId).toList());
+        } catch (IOException ex) {
+            log.warn("Could not mark {} queued orders as persisted; they will be skipped on replay", batch.size(), ex);
+        }
+        capacity.release(batch.size());
+    }
+
+    /**
+     * Keeps QUEUED statuses until they are replaced by an outcome, however long the order waits, and lets outcomes
+     * expire {@code retention} after they were recorded. Queued statuses are bounded by the queue's capacity.
+     */
+    private static final class OutcomeExpiry implements Expiry<String, OrderIntakeStatus> {
+
+        private final long retentionNanos;
+
+        private OutcomeExpiry(Duration retention) {
+            this.retentionNanos = retention.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String trackingId, OrderIntakeStatus status, long currentTime) {
+            return status.getState() == OrderIntakeStatus.State.QUEUED ? Long.MAX_VALUE : retentionNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String trackingId, OrderIntakeStatus status, long currentTime, long currentDuration) {
+            return expireAfterCreate(trackingId, status, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String trackingId, OrderIntakeStatus status, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Stops the workers once their current batch is done. Orders still queued stay in the log and are replayed
+     * by the next {@link #start()}.
+     */
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(MAX_BACKOFF.multipliedBy(2).toMillis());
+        }
+        intakeLog.close();
+    }
+}
@@ -0,0 +1,9 @@
+package com.knighteye097.order_processing_system.intake;
+
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+
+/**
+ * An order accepted by the intake queue but not necessarily persisted yet.
+ */
+record QueuedOrder(String trackingId, OrderRequest request) {
+}
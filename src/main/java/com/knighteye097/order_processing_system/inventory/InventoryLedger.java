@@ -0,0 +1,331 @@
+package com.knighteye097.order_processing_system.inventory;
+
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.entity.OrderItem;
+import com.knighteye097.order_processing_system.exception.InsufficientStockException;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.ProductQuantity;
+import com.knighteye097.order_processing_system.repository.ReservedItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stock ledger for the products listed in the {@code inventory} table; other products are not
+ * stock-managed and can always be ordered. Reservations are a compare-and-set on the product's counter, so
+ * checkouts of a hot product never wait on a lock or a database row. The net change per product is written
+ * back in one batch every {@code orders.inventory.sync-interval}, which also folds in changes made to the
+ * table since the last sync, such as restocking or reservations by other instances. Between two syncs,
+ * instances only see their own reservations, so several instances together can oversell by at most what
+ * they reserve in one interval.
+ * <p>
+ * A reservation made in a transaction is also marked on its order items, which are inserted anyway, and the mark is
+ * cleared by the transaction that writes the reservation back. If an instance stops before that, its reservations
+ * stay marked and every sync of any instance, including the one at startup, applies those whose order is older than
+ * {@code orders.inventory.abandoned-after}; until then the stock they took is overstated. Returned stock is only
+ * written back at the next sync, so a crash loses the releases of the last interval and understates the stock.
+ */
+@Slf4j
+@Component
+public class InventoryLedger implements SmartInitializingSingleton {
+
+    private static final int ABANDONED_BATCH_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductCatalog productCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter insufficientStock;
+    private final Duration abandonedAfter;
+    private final Map<Integer, Stock> stock = new ConcurrentHashMap<>();
+    // Items whose reservation has committed but is not yet written back
+    private final Queue<ReservedItem> committedReservations = new ConcurrentLinkedQueue<>();
+    // Held shared while a reservation changes the counters, and exclusively while a sync reads them
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public InventoryLedger(InventoryRepository inventoryRepository,
+                           ProductCatalog productCatalog,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${orders.inventory.abandoned-after:60s}") Duration abandonedAfter) {
+        this.inventoryRepository = inventoryRepository;
+        this.productCatalog = productCatalog;
+        this.transactionTemplate = transactionTemplate;
+        this.abandonedAfter = abandonedAfter;
+        this.insufficientStock = Counter.builder("orders.inventory.insufficient")
+                .description("Orders refused because a product was out of stock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the stock levels once the schema has been migrated and before any request is served, applying the
+     * reservations a previous run left behind.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        sync();
+    }
+
+    /**
+     * Returns whether any product is stock-managed, so callers can skip work that only matters if one is.
+     */
+    public boolean isTracking() {
+        return !stock.isEmpty();
+    }
+
+    /**
+     * Returns the stock this instance currently considers available, or empty if the product is not stock-managed.
+     */
+    public OptionalLong available(Integer productId) {
+        Stock entry = stock.get(productId);
+        return entry != null ? OptionalLong.of(entry.available.get()) : OptionalLong.empty();
+    }
+
+    /**
+     * Takes the quantities of the given items out of stock, all or nothing. Inside a transaction the
+     * reservation is handed back if the transaction does not commit, and the items of stock-managed products
+     * are marked as holding a reservation that is not written back yet.
+     *
+     * @throws InsufficientStockException if a stock-managed product does not have enough stock left
+     */
+    public void reserve(Collection<OrderItem> items) {
+        if (stock.isEmpty()) {
+            return;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Map<Integer, Long> reserved = new HashMap<>();
+        Map.Entry<Integer, Long> shortOf = null;
+        snapshotLock.readLock().lock();
+        try {
+            for (Map.Entry<Integer, Long> requested : quantitiesByProduct(items).entrySet()) {
+                Stock entry = stock.get(requested.getKey());
+                if (entry == null) {
+                    continue;
+                }
+                if (!entry.tryTake(requested.getValue())) {
+                    giveBack(reserved);
+                    shortOf = requested;
+                    break;
+                }
+                reserved.put(requested.getKey(), requested.getValue());
+            }
+            if (shortOf == null && inTransaction) {
+                reserved.forEach((productId, quantity) -> stock.get(productId).uncommitted.addAndGet(quantity));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (shortOf != null) {
+            insufficientStock.increment();
+            String productName = productCatalog.namesOf(List.of(shortOf.getKey())).get(shortOf.getKey());
+            throw new InsufficientStockException(productName, shortOf.getValue(), stock.get(shortOf.getKey()).available.get());
+        }
+        if (reserved.isEmpty()) {
+            return;
+        }
+        List<OrderItem> reservedItems = items.stream()
+                .filter(item -> item.getProductId() != null && item.getQuantity() > 0 && reserved.containsKey(item.getProductId()))
+                .toList();
+        reservedItems.forEach(item -> item.setStockPending(inTransaction));
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    snapshotLock.readLock().lock();
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            reservedItems.stream()
+                                    .filter(item -> item.getId() != null)
+                                    .forEach(item -> committedReservations.add(
+                                            new ReservedItem(item.getId(), item.getProductId(), item.getQuantity())));
+                        } else {
+                            giveBack(reserved);
+                        }
+                        reserved.forEach((productId, quantity) -> stock.get(productId).uncommitted.addAndGet(-quantity));
+                    } finally {
+                        snapshotLock.readLock().unlock();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the given quantities to stock. Inside a transaction this happens only once it has committed.
+     */
+    public void release(List<ProductQuantity> quantities) {
+        Map<Integer, Long> released = new HashMap<>();
+        quantities.forEach(quantity -> released.merge(quantity.productId(), quantity.quantity(), Long::sum));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    giveBack(released);
+                }
+            });
+        } else {
+            giveBack(released);
+        }
+    }
+
+    private static Map<Integer, Long> quantitiesByProduct(Collection<OrderItem> items) {
+        Map<Integer, Long> quantities = new HashMap<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() != null && item.getQuantity() > 0) {
+                quantities.merge(item.getProductId(), (long) item.getQuantity(), Long::sum);
+            }
+        }
+        return quantities;
+    }
+
+    private void giveBack(Map<Integer, Long> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            Stock entry = stock.get(productId);
+            if (entry != null && quantity > 0) {
+                entry.available.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Writes the net stock change since the last sync back to the database, applies reservations abandoned
+     * by stopped instances, then adopts any change made there by others in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${orders.inventory.sync-interval:1000}", initialDelayString = "${orders.inventory.sync-interval:1000}")
+    public synchronized void sync() {
+        if (writeBack()) {
+            applyAbandoned();
+            Map<Integer, Long> persisted = inventoryRepository.findAllAvailable();
+            persisted.forEach((productId, available) -> {
+                Stock entry = stock.computeIfAbsent(productId, id -> new Stock(available));
+                long external = available - entry.synced;
+                if (external != 0) {
+                    entry.available.addAndGet(external);
+                    entry.synced = available;
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        writeBack();
+    }
+
+    private boolean writeBack() {
+        Map<Integer, Long> deltas = new HashMap<>();
+        List<ReservedItem> written = new ArrayList<>();
+        snapshotLock.writeLock().lock();
+        try {
+            stock.forEach((productId, entry) -> {
+                // Reservations of transactions still running are written back once they commit
+                long delta = entry.available.get() + entry.uncommitted.get() - entry.synced;
+                if (delta != 0) {
+                    deltas.put(productId, delta);
+                }
+            });
+            for (ReservedItem item = committedReservations.poll(); item != null; item = committedReservations.poll()) {
+                written.add(item);
+            }
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        if (deltas.isEmpty() && written.isEmpty()) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> claimed = inventoryRepository.claimPending(written.stream().map(ReservedItem::itemId).toList())
+                        .stream()
+                        .map(ReservedItem::itemId)
+                        .collect(Collectors.toSet());
+                Map<Integer, Long> applied = new HashMap<>(deltas);
+                // Another instance took these for abandoned and has applied them already
+                written.stream()
+                        .filter(item -> !claimed.contains(item.itemId()))
+                        .forEach(item -> applied.merge(item.productId(), item.quantity(), Long::sum));
+                applied.values().removeIf(delta -> delta == 0);
+                inventoryRepository.addToAvailable(applied);
+            });
+        } catch (DataAccessException | TransactionException ex) {
+            committedReservations.addAll(written);
+            log.warn("Could not write back stock changes for {} products, retrying at the next sync", deltas.size(), ex);
+            return false;
+        }
+        deltas.forEach((productId, delta) -> stock.get(productId).synced += delta);
+        return true;
+    }
+
+    private void applyAbandoned() {
+        List<ReservedItem> abandoned = inventoryRepository.findAbandonedReservations(
+                LocalDateTime.now().minus(abandonedAfter), ABANDONED_BATCH_SIZE);
+        if (abandoned.isEmpty()) {
+            return;
+        }
+        try {
+            Integer applied = transactionTemplate.execute(status -> {
+                List<ReservedItem> claimed = inventoryRepository.claimPending(
+                        abandoned.stream().map(ReservedItem::itemId).toList());
+                Map<Integer, Long> deltas = new HashMap<>();
+                claimed.forEach(item -> deltas.merge(item.productId(), -item.quantity(), Long::sum));
+                inventoryRepository.addToAvailable(deltas);
+                return claimed.size();
+            });
+            log.info("Applied {} stock reservations left behind by a stopped instance", applied);
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Could not apply {} abandoned stock reservations, retrying at the next sync", abandoned.size(), ex);
+        }
+    }
+
+    private static final class Stock {
+
+        private final AtomicLong available;
+        // Reserved by transactions that have not completed yet
+        private final AtomicLong uncommitted = new AtomicLong();
+        // Stock level in the database as of the last sync; only read and written under the ledger's lock
+        private long synced;
+
+        private Stock(long available) {
+            this.available = new AtomicLong(available);
+            this.synced = available;
+        }
+
+        private boolean tryTake(long quantity) {
+            while (true) {
+                long current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
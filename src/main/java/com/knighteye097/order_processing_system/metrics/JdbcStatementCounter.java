@@ -0,0 +1,34 @@
+package com.knighteye097.order_processing_system.metrics;
+
+/**
+ * Counts the JDBC statements issued by the current thread between {@link #start()} and {@link #stop()}.
+ */
+public final class JdbcStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private JdbcStatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Stops counting for the current thread.
+     *
+     * @return the number of statements issued since {@link #start()}, or 0 if counting was not started
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
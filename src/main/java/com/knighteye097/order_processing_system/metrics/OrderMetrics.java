@@ -0,0 +1,48 @@
+package com.knighteye097.order_processing_system.metrics;
+
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Business counters for the order lifecycle. Creations and transitions are counted once they commit.
+ */
+@Component
+public class OrderMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter ordersCreated;
+    private final Counter cancelRejected;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ordersCreated = Counter.builder("orders.placed")
+                .description("Orders created")
+                .register(meterRegistry);
+        this.cancelRejected = Counter.builder("orders.cancel.rejected")
+                .description("Cancellations rejected because the order was no longer cancellable")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        ordersCreated.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Counter.builder("orders.status.transitions")
+                .description("Order status transitions by source and target status")
+                .tag("from", event.from().name())
+                .tag("to", event.to().name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void cancelRejected() {
+        cancelRejected.increment();
+    }
+}
@@ -0,0 +1,112 @@
+package com.knighteye097.order_processing_system.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts found at a classpath location, in version order, exactly once per database.
+ * Scripts are named {@code V<version>__<description>.sql}, and every applied version is recorded in the
+ * {@value #HISTORY_TABLE} table together with a checksum, so editing a script after it has been applied
+ * fails startup instead of leaving databases that disagree on what that version means.
+ */
+@Slf4j
+public class SchemaMigrator {
+
+    static final String HISTORY_TABLE = "schema_version";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public void migrate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists " + HISTORY_TABLE + " ("
+                + "version integer not null, "
+                + "description varchar(200) not null, "
+                + "checksum bigint not null, "
+                + "installed_on datetime(6) not null, "
+                + "primary key (version))");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("select version, checksum from " + HISTORY_TABLE,
+                rs -> {
+                    applied.put(rs.getInt("version"), rs.getLong("checksum"));
+                });
+
+        for (Migration migration : findMigrations()) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " has changed since it was applied; add a new version instead of editing it");
+                }
+                continue;
+            }
+            log.info("Applying schema migration V{} ({})", migration.version(), migration.description());
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script(), "UTF-8"));
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            jdbcTemplate.update("insert into " + HISTORY_TABLE
+                            + " (version, description, checksum, installed_on) values (?, ?, ?, current_timestamp)",
+                    migration.version(), migration.description(), migration.checksum());
+        }
+    }
+
+    private List<Migration> findMigrations() {
+        try {
+            Resource[] scripts = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource script : scripts) {
+                Matcher name = SCRIPT_NAME.matcher(script.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Invalid migration script name: " + script.getFilename());
+                }
+                migrations.add(new Migration(Integer.parseInt(name.group(1)),
+                        name.group(2).replace('_', ' '), checksum(script), script));
+            }
+            migrations.sort(Comparator.comparingInt(Migration::version));
+            return migrations;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read migration scripts from " + location, ex);
+        }
+    }
+
+    private static long checksum(Resource script) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = script.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+
+    private record Migration(int version, String description, long checksum, Resource script) {
+    }
+}
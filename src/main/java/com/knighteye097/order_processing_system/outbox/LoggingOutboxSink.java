@@ -0,0 +1,22 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes each event as one line to the {@code orders.outbox} logger, which can be routed to its own file.
+ */
+@Slf4j(topic = "orders.outbox")
+@Component
+@ConditionalOnProperty(name = "orders.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        messages.forEach(message -> log.info("{} {} {} {}",
+                message.id(), message.orderId(), message.eventType(), message.payload()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import com.knighteye097.order_processing_system.entity.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order lifecycle event as handed to an {@link OutboxSink}.
+ *
+ * @param id            the outbox ID, unique per event; consumers can use it to drop duplicates
+ * @param orderId       the ID of the order the event belongs to
+ * @param orderSequence the position of the event among the events of its order, increasing as they happened
+ * @param eventType     the kind of lifecycle event
+ * @param payload       the event body as JSON
+ * @param createdAt     when the event was written
+ */
+public record OutboxMessage(Long id, Long orderId, int orderSequence, OutboxEventType eventType, String payload,
+                            LocalDateTime createdAt) {
+}
@@ -0,0 +1,83 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import com.knighteye097.order_processing_system.entity.OutboxEvent;
+import com.knighteye097.order_processing_system.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes outbox events to the configured {@link OutboxSink} in batches.
+ * A batch is marked as published only after the sink accepted it, so delivery is at-least-once.
+ * A batch holds at most the next event of each order, and the next one is only claimed once it is published,
+ * so the events of each order leave in the order they happened even with several relay instances.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${orders.outbox.batch-size:200}") int batchSize,
+                       @Value("${orders.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.relay-interval:1000}")
+    public void relay() {
+        try {
+            Integer published;
+            // Runs until nothing is left rather than until a batch comes back short: the next event of an order
+            // only becomes claimable once the batch holding its predecessor has committed
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published > 0);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox relay failed, undelivered events will be retried", ex);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockUnpublished(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> messages = events.stream()
+                .map(e -> new OutboxMessage(e.getId(), e.getOrderId(), e.getOrderSequence(), e.getEventType(),
+                        e.getPayload(), e.getCreatedAt()))
+                .toList();
+        try {
+            outboxSink.publish(messages);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Outbox sink rejected a batch of " + messages.size() + " events", ex);
+        }
+        outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+        return events.size();
+    }
+
+    // Every hour
+    @Scheduled(fixedRate = 3600000)
+    public void purgePublished() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        log.debug("Purged {} published outbox events", purged);
+    }
+}
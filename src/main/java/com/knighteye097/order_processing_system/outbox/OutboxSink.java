@@ -0,0 +1,18 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for order lifecycle events relayed from the outbox table.
+ * Delivery is at-least-once: a batch is redelivered, in the same order, until publish returns normally.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of messages in order.
+     *
+     * @param messages the messages, at most one per order
+     * @throws Exception if the batch could not be delivered and must be retried
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
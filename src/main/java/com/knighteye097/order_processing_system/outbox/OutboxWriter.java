@@ -0,0 +1,116 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.entity.OutboxEvent;
+import com.knighteye097.order_processing_system.entity.OutboxEventType;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.repository.OutboxEntry;
+import com.knighteye097.order_processing_system.repository.StatusChange;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Records order lifecycle events in the outbox table, and the status changes they announce in the
+ * {@code order_status_history} table, as part of the transaction that produced them, so both are stored if and only
+ * if the change commits. The entries of a transaction are collected and written just before it commits in a single
+ * JDBC batch, each entry inserting the event and appending the change in one statement, so even a bulk move costs
+ * one batch. Changes of one order are serialized by its row lock, so each is appended after the change it follows
+ * has committed. Each event carries the {@link OrderStatus#depth() depth} of the status it leaves the order in,
+ * which orders the events of one order.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public OutboxWriter(OrderStatusHistoryRepository orderStatusHistoryRepository,
+                        ObjectMapper objectMapper,
+                        EntityManager entityManager) {
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        LocalDateTime createdAt = Optional.ofNullable(event.order().getCreatedAt()).orElseGet(LocalDateTime::now);
+        write(event.order().getStatus().depth(), OutboxEventType.ORDER_CREATED, event.order(),
+                new StatusChange(event.order().getOrderId(), null, event.order().getStatus(), createdAt));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        write(event.to().depth(), OutboxEventType.ORDER_STATUS_CHANGED, event,
+                new StatusChange(event.orderId(), event.from(), event.to(), LocalDateTime.now()));
+    }
+
+    private void write(int orderSequence, OutboxEventType type, Object payload, StatusChange change) {
+        OutboxEvent outboxEvent;
+        try {
+            outboxEvent = new OutboxEvent(change.orderId(), orderSequence, type, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + type + " event for order " + change.orderId(), ex);
+        }
+        outboxEvent.setId(nextId(outboxEvent));
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        pendingEntries().add(new OutboxEntry(outboxEvent, change));
+    }
+
+    /**
+     * Takes the next outbox id from the generator Hibernate would use for the entity, which hands out ids in blocks
+     * and so rarely touches the database.
+     */
+    private Long nextId(OutboxEvent outboxEvent) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(OutboxEvent.class)
+                .getGenerator();
+        return (Long) generator.generate(session, outboxEvent, null, EventType.INSERT);
+    }
+
+    private List<OutboxEntry> pendingEntries() {
+        PendingEntries pending = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEntries();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending.entries;
+    }
+
+    private final class PendingEntries implements TransactionSynchronization {
+
+        private final List<OutboxEntry> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            orderStatusHistoryRepository.append(entries);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(OutboxWriter.this);
+        }
+    }
+}
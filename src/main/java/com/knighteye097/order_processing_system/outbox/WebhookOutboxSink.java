@@ -0,0 +1,34 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * POSTs each batch of events as a JSON array to a webhook. Any non-2xx response fails the batch,
+ * which is then redelivered on the next relay run.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public WebhookOutboxSink(RestClient.Builder restClientBuilder,
+                             @Value("${orders.outbox.webhook-url}") String webhookUrl) {
+        this.restClient = restClientBuilder.baseUrl(webhookUrl).build();
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(messages)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,66 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps a token bucket per client and tier. Buckets are dropped once they have been idle long enough to refill
+ * completely, which loses nothing since a new bucket starts full, so memory follows the number of active clients.
+ */
+public class ClientRateLimiter {
+
+    public record Budget(long capacity, double tokensPerSecond) {
+        public Budget {
+            if (capacity < 1 || tokensPerSecond <= 0) {
+                throw new IllegalArgumentException("A rate limit budget needs a positive capacity and refill rate");
+            }
+        }
+    }
+
+    private final Map<RateLimitTier, Budget> budgets;
+    private final long maxClients;
+    private final Map<RateLimitTier, Cache<String, TokenBucket>> buckets = new EnumMap<>(RateLimitTier.class);
+
+    public ClientRateLimiter(Map<RateLimitTier, Budget> budgets, long maxClients) {
+        this.budgets = new EnumMap<>(budgets);
+        this.maxClients = maxClients;
+        for (RateLimitTier tier : RateLimitTier.values()) {
+            Budget budget = this.budgets.get(tier);
+            if (budget == null) {
+                throw new IllegalArgumentException("No rate limit budget for tier " + tier);
+            }
+            Duration refill = Duration.ofNanos(new TokenBucket(budget.capacity(), budget.tokensPerSecond(), 0).refillNanos());
+            buckets.put(tier, Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(refill)
+                    .build());
+        }
+    }
+
+    /**
+     * Charges one request to the client's budget for the tier.
+     *
+     * @return {@link Duration#ZERO} if the request is within budget, otherwise how long until it would be
+     */
+    public Duration tryAcquire(String client, RateLimitTier tier) {
+        long now = System.nanoTime();
+        Budget budget = budgets.get(tier);
+        TokenBucket bucket = buckets.get(tier)
+                .get(client, key -> new TokenBucket(budget.capacity(), budget.tokensPerSecond(), now));
+        return Duration.ofNanos(bucket.tryAcquire(now));
+    }
+
+    /**
+     * Returns a limiter whose budgets are {@code factor} times these, for buckets shared by several clients.
+     */
+    public ClientRateLimiter scaledBy(double factor) {
+        Map<RateLimitTier, Budget> scaled = new EnumMap<>(RateLimitTier.class);
+        budgets.forEach((tier, budget) -> scaled.put(tier,
+                new Budget(Math.round(budget.capacity() * factor), budget.tokensPerSecond() * factor)));
+        return new ClientRateLimiter(scaled, maxClients);
+    }
+}
@@ -0,0 +1,82 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Watches how long callers wait for a connection from the primary pool, as reported by Hikari itself.
+ * The pool counts as saturated while callers are queued for a connection and recent waits have averaged
+ * above the threshold; the queue check keeps a stale average from shedding load once the pool has drained.
+ */
+public class PoolWaitMonitor {
+
+    // Each wait moves the average a quarter of the way towards itself
+    private static final int SMOOTHING_DIVISOR = 4;
+
+    private final long thresholdNanos;
+    private final AtomicLong averageWaitNanos = new AtomicLong();
+    private volatile PoolStats poolStats;
+
+    public PoolWaitMonitor(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * Wraps the pool's metrics tracker factory so that connection waits and timeouts are also reported here.
+     * A timeout counts as a wait of the full connection timeout.
+     */
+    public MetricsTrackerFactory track(MetricsTrackerFactory delegate, LongSupplier connectionTimeoutMillis) {
+        return (poolName, stats) -> {
+            this.poolStats = stats;
+            IMetricsTracker tracker = delegate.create(poolName, stats);
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMillis.getAsLong());
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                    tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+                }
+
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    recordWait(elapsedAcquiredNanos);
+                    tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    recordWait(timeoutNanos);
+                    tracker.recordConnectionTimeout();
+                }
+
+                @Override
+                public void close() {
+                    tracker.close();
+                }
+            };
+        };
+    }
+
+    void recordWait(long waitNanos) {
+        averageWaitNanos.accumulateAndGet(waitNanos, (average, wait) -> average + (wait - average) / SMOOTHING_DIVISOR);
+    }
+
+    public Duration averageWait() {
+        return Duration.ofNanos(averageWaitNanos.get());
+    }
+
+    public boolean isSaturated() {
+        PoolStats stats = poolStats;
+        return stats != null && stats.getPendingThreads() > 0 && averageWaitNanos.get() > thresholdNanos;
+    }
+}
@@ -0,0 +1,86 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-client rate limiting of {@link RateLimited} endpoints and load shedding on connection pool saturation.
+ * Disabled with {@code orders.rate-limit.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "orders.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public PoolWaitMonitor poolWaitMonitor(
+            @Value("${orders.load-shedding.pool-wait-threshold:100ms}") Duration threshold) {
+        return new PoolWaitMonitor(threshold);
+    }
+
+    /**
+     * Reports the waits of the auto-configured pool to the monitor. The pool's Micrometer metrics are kept by
+     * delegating to the tracker factory Spring Boot would otherwise have installed.
+     */
+    @Bean
+    public static BeanPostProcessor poolWaitMonitorPostProcessor(ObjectProvider<PoolWaitMonitor> poolWaitMonitor,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool
+                        && pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+                    pool.setMetricsTrackerFactory(poolWaitMonitor.getObject().track(
+                            new MicrometerMetricsTrackerFactory(meterRegistry.getObject()), pool::getConnectionTimeout));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(
+            @Value("${orders.rate-limit.cheap.capacity:100}") long cheapCapacity,
+            @Value("${orders.rate-limit.cheap.per-second:50}") double cheapPerSecond,
+            @Value("${orders.rate-limit.expensive.capacity:10}") long expensiveCapacity,
+            @Value("${orders.rate-limit.expensive.per-second:2}") double expensivePerSecond,
+            @Value("${orders.rate-limit.max-tracked-clients:100000}") long maxClients) {
+        return new ClientRateLimiter(Map.of(
+                RateLimitTier.CHEAP, new ClientRateLimiter.Budget(cheapCapacity, cheapPerSecond),
+                RateLimitTier.EXPENSIVE, new ClientRateLimiter.Budget(expensiveCapacity, expensivePerSecond)),
+                maxClients);
+    }
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(
+            ClientRateLimiter clientRateLimiter,
+            PoolWaitMonitor poolWaitMonitor,
+            MeterRegistry meterRegistry,
+            @Value("${orders.client-header:X-Api-Key}") String clientHeader,
+            @Value("${orders.rate-limit.address-multiplier:5}") double addressMultiplier,
+            @Value("${orders.load-shedding.retry-after:1s}") Duration shedRetryAfter) {
+        return new RateLimitInterceptor(clientRateLimiter, clientRateLimiter.scaledBy(addressMultiplier), poolWaitMonitor,
+                clientHeader, shedRetryAfter, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.knighteye097.order_processing_system.exception.RateLimitExceededException;
+import com.knighteye097.order_processing_system.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admits calls to {@link RateLimited} handler methods. Sheddable tiers are refused with 503 while the connection
+ * pool is saturated, before any budget is charged, and calls over the client's budget are refused with 429.
+ * Clients are identified by the configured API key header, falling back to their remote address. The key is not
+ * validated, so every call is also charged to a larger budget shared by its remote address: rotating keys neither
+ * buys a fresh budget nor adds tracked clients faster than that budget allows.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+    private final ClientRateLimiter addressRateLimiter;
+    private final PoolWaitMonitor poolWaitMonitor;
+    private final String clientHeader;
+    private final Duration shedRetryAfter;
+    private final Map<RateLimitTier, Counter> rejected = new EnumMap<>(RateLimitTier.class);
+    private final Map<RateLimitTier, Counter> shed = new EnumMap<>(RateLimitTier.class);
+
+    public RateLimitInterceptor(ClientRateLimiter rateLimiter,
+                                ClientRateLimiter addressRateLimiter,
+                                PoolWaitMonitor poolWaitMonitor,
+                                String clientHeader,
+                                Duration shedRetryAfter,
+                                MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.addressRateLimiter = addressRateLimiter;
+        this.poolWaitMonitor = poolWaitMonitor;
+        this.clientHeader = clientHeader;
+        this.shedRetryAfter = shedRetryAfter;
+        for (RateLimitTier tier : RateLimitTier.values()) {
+            rejected.put(tier, Counter.builder("orders.rate-limit.rejected")
+                    .description("Requests refused because the client exceeded its budget")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+            shed.put(tier, Counter.builder("orders.load-shedding.shed")
+                    .description("Requests refused because the connection pool was saturated")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited limit = method.getMethodAnnotation(RateLimited.class);
+        if (limit == null) {
+            return true;
+        }
+        RateLimitTier tier = limit.value();
+        if (tier.isSheddable() && poolWaitMonitor.isSaturated()) {
+            shed.get(tier).increment();
+            throw new ServiceOverloadedException(shedRetryAfter);
+        }
+        Duration retryAfter = addressRateLimiter.tryAcquire(request.getRemoteAddr(), tier);
+        if (retryAfter.isZero()) {
+            retryAfter = rateLimiter.tryAcquire(clientId(request), tier);
+        }
+        if (!retryAfter.isZero()) {
+            rejected.get(tier).increment();
+            throw new RateLimitExceededException(retryAfter);
+        }
+        return true;
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String header = request.getHeader(clientHeader);
+        // Prefixed so that a key spelling out an address cannot draw on that address's own budget
+        return header == null || header.isBlank() ? "address:" + request.getRemoteAddr() : "key:" + header;
+    }
+}
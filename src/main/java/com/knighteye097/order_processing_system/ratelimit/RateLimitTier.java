@@ -0,0 +1,22 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+/**
+ * Request budgets, sized by what an endpoint costs the database. Each client has a separate bucket per tier,
+ * so exhausting the expensive budget does not block cheap lookups.
+ */
+public enum RateLimitTier {
+    // Primary key lookups and in-memory reads
+    CHEAP(false),
+    // Page scans, searches, exports and bulk writes; the first to be shed when the connection pool is saturated
+    EXPENSIVE(true);
+
+    private final boolean sheddable;
+
+    RateLimitTier(boolean sheddable) {
+        this.sheddable = sheddable;
+    }
+
+    public boolean isSheddable() {
+        return sheddable;
+    }
+}
@@ -0,0 +1,49 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code capacity} tokens and refilled at a constant rate. Rather than a token
+ * count and a refill timestamp, it keeps the single instant at which the bucket will next be full
+ * (the generic cell rate algorithm), so taking a token is one compare-and-set without locks.
+ */
+class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    // The instant at which every token taken so far has been refilled
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, double tokensPerSecond, long nowNanos) {
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000 / tokensPerSecond));
+        this.capacityNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one is refilled
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            // Compared by difference, since nanoTime values may be negative
+            long next = (current - nowNanos > 0 ? current : nowNanos) + nanosPerToken;
+            long shortfall = next - nowNanos - capacityNanos;
+            if (shortfall > 0) {
+                return shortfall;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * How long an untouched bucket takes to refill completely; after that it is no different from a new one.
+     */
+    long refillNanos() {
+        return capacityNanos;
+    }
+}
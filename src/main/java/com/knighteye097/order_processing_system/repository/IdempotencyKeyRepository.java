@@ -0,0 +1,90 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Durable store of idempotency keys and the responses of the requests made with them, so that retries
+ * are recognised across restarts and across instances. Only present when
+ * {@code orders.idempotency.persistent=true}.
+ */
+@Repository
+@ConditionalOnProperty(name = "orders.idempotency.persistent", havingValue = "true")
+public class IdempotencyKeyRepository {
+
+    static final String SELECT_BY_KEY =
+            "SELECT request_hash, response FROM idempotency_keys WHERE idempotency_key = ?";
+    static final String INSERT =
+            "INSERT INTO idempotency_keys (idempotency_key, request_hash, response, created_at) VALUES (?, ?, ?, ?)";
+    static final String DELETE_CREATED_BEFORE = "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyKeyRepository(DataSource dataSource,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<StoredResponse> findByKey(String key) {
+        return jdbcTemplate.query(SELECT_BY_KEY, (rs, rowNum) ->
+                        new StoredResponse(rs.getBytes("request_hash"), read(rs.getString("response"))), key)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Runs {@code action} and records its response under {@code key} in the same transaction, so the key
+     * is stored if and only if the work it guards commits. When another instance records the same key
+     * first, the insert fails with a duplicate key error and the whole transaction rolls back.
+     */
+    public OrderResponse executeAndRecord(String key, byte[] requestHash, Supplier<OrderResponse> action) {
+        return transactionTemplate.execute(status -> {
+            OrderResponse response = action.get();
+            jdbcTemplate.update(INSERT, key, requestHash, write(response), LocalDateTime.now());
+            return response;
+        });
+    }
+
+    public int deleteCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(DELETE_CREATED_BEFORE, cutoff);
+    }
+
+    private String write(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private OrderResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @param requestHash the SHA-256 fingerprint of the request that ran
+     * @param response    its response
+     */
+    public record StoredResponse(byte[] requestHash, OrderResponse response) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.repository;
+
+/**
+ * ID of the order created for an intake tracking id.
+ */
+public record IntakeOrderId(String intakeId, Long orderId) {
+}
@@ -0,0 +1,83 @@
+package com.knighteye097.order_processing_system.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads stock levels and applies net stock changes to the {@code inventory} table. Changes are applied as
+ * relative increments, so batches written by several instances add up instead of overwriting each other.
+ * Also tracks which order items hold a reservation that has not been written back yet.
+ */
+@Repository
+public class InventoryRepository {
+
+    static final String SELECT_AVAILABLE = "SELECT product_id, available FROM inventory";
+    static final String ADD_TO_AVAILABLE = "UPDATE inventory SET available = available + ? WHERE product_id = ?";
+    static final String SELECT_ABANDONED =
+            "SELECT i.id, i.product_id, i.quantity FROM order_items i JOIN orders_table o ON o.id = i.order_id " +
+            "WHERE i.stock_pending = TRUE AND o.created_at < ? LIMIT ?";
+    static final String LOCK_PENDING =
+            "SELECT id, product_id, quantity FROM order_items WHERE id IN (:ids) AND stock_pending = TRUE FOR UPDATE";
+    static final String CLEAR_PENDING = "UPDATE order_items SET stock_pending = FALSE WHERE id IN (:ids)";
+
+    private static final RowMapper<ReservedItem> RESERVED_ITEM = (rs, rowNum) ->
+            new ReservedItem(rs.getLong("id"), rs.getInt("product_id"), rs.getLong("quantity"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public InventoryRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public Map<Integer, Long> findAllAvailable() {
+        Map<Integer, Long> available = new HashMap<>();
+        jdbcTemplate.query(SELECT_AVAILABLE, rs -> {
+            available.put(rs.getInt("product_id"), rs.getLong("available"));
+        });
+        return available;
+    }
+
+    /**
+     * Adds each delta to the available stock of its product in a single JDBC batch.
+     */
+    public void addToAvailable(Map<Integer, Long> deltas) {
+        List<Object[]> args = deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getValue(), delta.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(ADD_TO_AVAILABLE, args);
+    }
+
+    /**
+     * Returns up to {@code limit} reservations still pending on orders created before {@code cutoff}.
+     */
+    public List<ReservedItem> findAbandonedReservations(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(SELECT_ABANDONED, RESERVED_ITEM, cutoff, limit);
+    }
+
+    /**
+     * Marks the reservations of the given items as written back and returns those that were still pending.
+     * The rows stay locked until the surrounding transaction ends, so it must also apply the returned
+     * reservations to the stock; a reservation claimed by another instance first is not returned.
+     */
+    public List<ReservedItem> claimPending(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        List<ReservedItem> pending = namedJdbcTemplate.query(LOCK_PENDING, Map.of("ids", itemIds), RESERVED_ITEM);
+        if (!pending.isEmpty()) {
+            namedJdbcTemplate.update(CLEAR_PENDING, Map.of("ids", pending.stream().map(ReservedItem::itemId).toList()));
+        }
+        return pending;
+    }
+}
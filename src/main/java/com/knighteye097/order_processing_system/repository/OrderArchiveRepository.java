@@ -0,0 +1,102 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves terminal orders and their items from the hot tables into {@code orders_archive} and
+ * {@code order_items_archive}, and reads them back. Each move is a handful of set-based statements,
+ * so archiving a chunk costs the same number of round trips whatever its size.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    static final String SELECT_ARCHIVABLE_IDS =
+            "SELECT id FROM orders_table WHERE created_at < :cutoff AND status IN (:statuses) LIMIT :limit";
+    static final String COPY_ORDERS =
+            "INSERT INTO orders_archive (id, created_at, status, archived_at) " +
+            "SELECT id, created_at, status, :archivedAt FROM orders_table WHERE id IN (:ids)";
+    // Archived items keep the product name itself, so the archive stays readable without the catalog
+    static final String COPY_ITEMS =
+            "INSERT INTO order_items_archive (id, product_name, quantity, order_id) " +
+            "SELECT i.id, p.name, i.quantity, i.order_id FROM order_items i " +
+            "LEFT JOIN products p ON p.id = i.product_id WHERE i.order_id IN (:ids)";
+    static final String DELETE_ITEMS = "DELETE FROM order_items WHERE order_id IN (:ids)";
+    static final String DELETE_ORDERS = "DELETE FROM orders_table WHERE id IN (:ids)";
+    static final String SELECT_ARCHIVED_ORDER =
+            "SELECT o.id, o.created_at, o.status, i.product_name, i.quantity " +
+            "FROM orders_archive o LEFT JOIN order_items_archive i ON i.order_id = o.id " +
+            "WHERE o.id = :id ORDER BY i.id";
+    static final String SELECT_ARCHIVED_STATUS = "SELECT status FROM orders_archive WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OrderArchiveRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Returns the IDs of up to {@code limit} orders created before {@code cutoff} whose status is one of {@code statuses}.
+     */
+    public List<Long> findArchivableIds(LocalDateTime cutoff, List<OrderStatus> statuses, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("statuses", statuses.stream().map(Enum::name).toList())
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE_IDS, params, Long.class);
+    }
+
+    /**
+     * Copies the given orders and their items into the archive tables and deletes them from the hot tables.
+     * Must run inside a transaction so that an order is never visible in both places, or in neither.
+     *
+     * @return the number of orders moved
+     */
+    public int moveToArchive(List<Long> ids, LocalDateTime archivedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", archivedAt);
+        jdbcTemplate.update(COPY_ORDERS, params);
+        jdbcTemplate.update(COPY_ITEMS, params);
+        jdbcTemplate.update(DELETE_ITEMS, params);
+        return jdbcTemplate.update(DELETE_ORDERS, params);
+    }
+
+    public Optional<OrderResponse> findById(Long id) {
+        OrderResponse order = jdbcTemplate.query(SELECT_ARCHIVED_ORDER, new MapSqlParameterSource("id", id), rs -> {
+            OrderResponse response = null;
+            while (rs.next()) {
+                if (response == null) {
+                    response = new OrderResponse();
+                    response.setOrderId(rs.getLong("id"));
+                    response.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                    response.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                    response.setItems(new ArrayList<>());
+                }
+                int quantity = rs.getInt("quantity");
+                if (!rs.wasNull()) {
+                    response.getItems().add(new ItemDto(rs.getString("product_name"), quantity));
+                }
+            }
+            return response;
+        });
+        return Optional.ofNullable(order);
+    }
+
+    public Optional<OrderStatus> findStatusById(Long id) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVED_STATUS, new MapSqlParameterSource("id", id), String.class)
+                .stream()
+                .findFirst()
+                .map(OrderStatus::valueOf);
+    }
+}
@@ -0,0 +1,87 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Streams orders straight off a JDBC result set so that exports run in constant memory.
+ * Orders and their items are read with a single joined query ordered by order ID, and each
+ * order is handed to the consumer as soon as its last item row has been read.
+ * Product names are joined in rather than taken from the product catalog: a streaming result set
+ * must be read to the end before its connection can run another query, such as a catalog miss.
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String SELECT_ORDERS_WITH_ITEMS =
+            "SELECT o.id, o.created_at, o.status, p.name AS product_name, i.quantity " +
+            "FROM orders_table o LEFT JOIN order_items i ON i.order_id = o.id " +
+            "LEFT JOIN products p ON p.id = i.product_id ";
+    static final String SELECT_ALL = SELECT_ORDERS_WITH_ITEMS + "ORDER BY o.id, i.id";
+    static final String SELECT_BY_STATUS = SELECT_ORDERS_WITH_ITEMS + "WHERE o.status = ? ORDER BY o.id, i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportRepository(DataSource dataSource,
+                                 @Value("${orders.export.fetch-size:-2147483648}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamOrders(Optional<OrderStatus> status, Consumer<OrderResponse> consumer) {
+        OrderRowAssembler assembler = new OrderRowAssembler(consumer);
+        if (status.isPresent()) {
+            jdbcTemplate.query(SELECT_BY_STATUS, assembler::processRow, status.get().name());
+        } else {
+            jdbcTemplate.query(SELECT_ALL, assembler::processRow);
+        }
+        assembler.finish();
+    }
+
+    private static final class OrderRowAssembler {
+
+        private final Consumer<OrderResponse> consumer;
+        private OrderResponse current;
+
+        private OrderRowAssembler(Consumer<OrderResponse> consumer) {
+            this.consumer = consumer;
+        }
+
+        private void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("id");
+            if (current == null || current.getOrderId() != orderId) {
+                finish();
+                current = new OrderResponse();
+                current.setOrderId(orderId);
+                current.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                current.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                current.setItems(new ArrayList<>());
+            }
+            // Quantity is never null for an item, so a null one marks the single row of an order without items;
+            // the product name may be null on its own, for items stored without one
+            int quantity = rs.getInt("quantity");
+            if (!rs.wasNull()) {
+                current.getItems().add(new ItemDto(rs.getString("product_name"), quantity));
+            }
+        }
+
+        private void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
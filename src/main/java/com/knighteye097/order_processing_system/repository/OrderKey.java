@@ -0,0 +1,9 @@
+package com.knighteye097.order_processing_system.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an order in creation order: its creation time, with the ID breaking ties.
+ */
+public record OrderKey(LocalDateTime createdAt, Long id) {
+}
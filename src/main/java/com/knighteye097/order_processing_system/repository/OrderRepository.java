@@ -2,10 +2,102 @@ package com.knighteye097.order_processing_system.repository;
 
 import com.knighteye097.order_processing_system.entity.Order;
 import com.knighteye097.order_processing_system.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByStatus(OrderStatus status);
-}
\ No newline at end of file
+    /**
+     * Loads a single order together with its items in one query.
+     */
+    @EntityGraph(attributePaths = "items")
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    /**
+     * Loads the given orders together with their items in one query, in ascending ID order.
+     * Meant as the second phase of a paginated read, after the page of IDs has been selected.
+     */
+    @EntityGraph(attributePaths = "items")
+    @Query("select o from Order o where o.id in :ids order by o.id")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.knighteye097.order_processing_system.repository.StatusCount(o.status, count(o)) "
+            + "from Order o group by o.status")
+    List<StatusCount> countByStatus();
+
+    /**
+     * Sums item quantities per product over the orders created at or after {@code since}.
+     */
+    @Query("select new com.knighteye097.order_processing_system.repository.ProductQuantity(i.productId, sum(i.quantity)) "
+            + "from OrderItem i join i.order o where o.createdAt >= :since group by i.productId")
+    List<ProductQuantity> sumQuantityByProductCreatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Sums the quantities per product that the order took out of stock, leaving out products that were not
+     * stock-managed when it was placed.
+     */
+    @Query("select new com.knighteye097.order_processing_system.repository.ProductQuantity(i.productId, sum(i.quantity)) "
+            + "from OrderItem i where i.order.id = :orderId and i.stockPending is not null group by i.productId")
+    List<ProductQuantity> sumReservedQuantityByProductForOrder(@Param("orderId") Long orderId);
+
+    @Query("select o.id from Order o where o.intakeId = :intakeId")
+    Optional<Long> findIdByIntakeId(@Param("intakeId") String intakeId);
+
+    @Query("select new com.knighteye097.order_processing_system.repository.IntakeOrderId(o.intakeId, o.id) "
+            + "from Order o where o.intakeId in :intakeIds")
+    List<IntakeOrderId> findIdsByIntakeIdIn(@Param("intakeIds") Collection<String> intakeIds);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Moves the order to {@code to} only if its status is still {@code expected}, in a single statement.
+     *
+     * @return 1 if the status was changed, 0 if the order does not exist or no longer has the expected status
+     */
+    @Modifying
+    @Query("update Order o set o.status = :to where o.id = :id and o.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expected") OrderStatus expected,
+                            @Param("to") OrderStatus to);
+
+    @Query("select o.id from Order o where o.id > :afterId order by o.id")
+    List<Long> findIdPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select o.id from Order o where o.status = :status and o.id > :afterId order by o.id")
+    List<Long> findIdPageByStatusAfter(@Param("status") OrderStatus status,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+
+    /**
+     * Claims the next chunk of order IDs in the given status, in ascending ID order, starting strictly after
+     * {@code afterId}. The rows stay locked until the transaction ends, and rows already locked by another
+     * transaction are skipped instead of waited for, so concurrent callers on any number of instances claim
+     * disjoint chunks. Native because Hibernate only renders SKIP LOCKED for some dialects.
+     */
+    @Query(value = "select id from orders_table where status = :status and id > :afterId order by id limit :limit "
+            + "for update skip locked", nativeQuery = true)
+    List<Long> claimIdsByStatusAfter(@Param("status") String status,
+                                     @Param("afterId") long afterId,
+                                     @Param("limit") int limit);
+
+    /**
+     * Moves the given orders from one status to another in a single statement.
+     *
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("update Order o set o.status = :to where o.status = :from and o.id in :ids")
+    int updateStatusByIdIn(@Param("from") OrderStatus from,
+                           @Param("to") OrderStatus to,
+                           @Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,61 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Runs order searches built from {@link OrderSpecifications}. Only IDs are selected, in ascending order and
+ * starting strictly after a keyset cursor, so a page costs one indexed query however deep it is; the orders
+ * themselves are loaded afterwards by ID, like any other page. Searches bounded by creation time are read in
+ * (creation time, ID) order instead, the order of the index that serves the range, so MySQL needs no filesort.
+ */
+@Repository
+public class OrderSearchRepository {
+
+    private final EntityManager entityManager;
+
+    public OrderSearchRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns the IDs of up to {@code limit} orders matching {@code spec}, in ascending ID order,
+     * starting strictly after {@code afterId}.
+     */
+    public List<Long> findIdPage(Specification<Order> spec, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> order = query.from(Order.class);
+        Specification<Order> page = spec.and(OrderSpecifications.idAfter(afterId));
+        query.select(order.get("id"))
+                .where(page.toPredicate(order, query, cb))
+                .orderBy(cb.asc(order.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Returns the keys of up to {@code limit} orders matching {@code spec}, in ascending (creation time, ID)
+     * order, starting strictly after {@code after}, or from the first match if it is null.
+     */
+    public List<OrderKey> findCreatedPage(Specification<Order> spec, OrderKey after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderKey> query = cb.createQuery(OrderKey.class);
+        Root<Order> order = query.from(Order.class);
+        Specification<Order> page = after != null ? spec.and(OrderSpecifications.createdAfter(after)) : spec;
+        query.select(cb.construct(OrderKey.class, order.get("createdAt"), order.get("id")))
+                .where(page.toPredicate(order, query, cb))
+                .orderBy(cb.asc(order.get("createdAt")), cb.asc(order.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.Order;
+import com.knighteye097.order_processing_system.entity.OrderItem;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Building blocks for order searches. Each predicate is rendered into the WHERE clause of the search query,
+ * so filtering happens in the database and only matching IDs are ever read.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> createdAtOrAfter(LocalDateTime from) {
+        return (order, query, cb) -> cb.greaterThanOrEqualTo(order.get("createdAt"), from);
+    }
+
+    public static Specification<Order> createdBefore(LocalDateTime to) {
+        return (order, query, cb) -> cb.lessThan(order.get("createdAt"), to);
+    }
+
+    public static Specification<Order> statusIn(Collection<OrderStatus> statuses) {
+        return (order, query, cb) -> order.get("status").in(statuses);
+    }
+
+    /**
+     * Matches orders with at least one item of the given product, as an EXISTS probe into the
+     * {@code (product_id, order_id)} index rather than a join that could return an order more than once.
+     */
+    public static Specification<Order> containsProduct(Integer productId) {
+        return (order, query, cb) -> {
+            Subquery<Long> items = query.subquery(Long.class);
+            Root<OrderItem> item = items.from(OrderItem.class);
+            items.select(item.get("order").get("id"))
+                    .where(cb.equal(item.get("productId"), productId),
+                            cb.equal(item.get("order"), order));
+            return cb.exists(items);
+        };
+    }
+
+    public static Specification<Order> hasAtLeastItems(int minItems) {
+        return (order, query, cb) -> cb.greaterThanOrEqualTo(order.get("itemCount"), minItems);
+    }
+
+    public static Specification<Order> idAfter(long afterId) {
+        return (order, query, cb) -> cb.greaterThan(order.get("id"), afterId);
+    }
+
+    public static Specification<Order> createdAfter(OrderKey after) {
+        return (order, query, cb) -> cb.or(
+                cb.greaterThan(order.get("createdAt"), after.createdAt()),
+                cb.and(cb.equal(order.get("createdAt"), after.createdAt()), cb.greaterThan(order.get("id"), after.id())));
+    }
+}
@@ -0,0 +1,106 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.entity.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Appends to and reads from the {@code order_status_history} table. Changes are appended together with the outbox
+ * events announcing them, one two-statement entry per change, so that recording history adds no round trip of its own.
+ */
+@Repository
+public class OrderStatusHistoryRepository {
+
+    // The order reached from_status when its previous change happened; for orders created before history was
+    // recorded that is unknown for all but PENDING, so fall back to the creation time and then to the change itself.
+    // A change is never dated before the one it follows, so clock skew between instances cannot make a duration negative
+    static final String INSERT_OUTBOX =
+            "INSERT INTO order_outbox (id, order_id, order_sequence, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String APPEND =
+            "INSERT INTO order_status_history (order_id, from_status, to_status, entered_at, changed_at) " +
+            "SELECT ?, ?, ?, COALESCE(MAX(h.changed_at), (SELECT o.created_at FROM orders_table o WHERE o.id = ?), ?), " +
+            "GREATEST(?, COALESCE(MAX(h.changed_at), ?)) " +
+            "FROM order_status_history h WHERE h.order_id = ?";
+    // On MySQL a statement holding two commands needs allowMultiQueries=true on the connection URL
+    static final String INSERT_OUTBOX_AND_APPEND = INSERT_OUTBOX + "; " + APPEND;
+    static final String SELECT_BY_ORDER =
+            "SELECT from_status, to_status, changed_at FROM order_status_history WHERE order_id = ? ORDER BY changed_at, id";
+    static final String COUNT_LEFT =
+            "SELECT COUNT(*) FROM order_status_history WHERE from_status = ? AND changed_at >= ? AND changed_at < ?";
+    static final String SELECT_DURATION_AT_RANK =
+            "SELECT TIMESTAMPDIFF(MICROSECOND, entered_at, changed_at) AS micros FROM order_status_history " +
+            "WHERE from_status = ? AND changed_at >= ? AND changed_at < ? ORDER BY micros LIMIT 1 OFFSET ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStatusHistoryRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Inserts the outbox events and appends their changes in a single JDBC batch. Changes of the same order must be
+     * given in the order they happened.
+     */
+    public void append(List<OutboxEntry> entries) {
+        List<Object[]> args = entries.stream()
+                .map(entry -> {
+                    OutboxEvent event = entry.event();
+                    StatusChange change = entry.change();
+                    return new Object[]{
+                            event.getId(),
+                            event.getOrderId(),
+                            event.getOrderSequence(),
+                            event.getEventType().name(),
+                            event.getPayload(),
+                            event.getCreatedAt(),
+                            change.orderId(),
+                            change.from() != null ? change.from().name() : null,
+                            change.to().name(),
+                            change.orderId(),
+                            change.changedAt(),
+                            change.changedAt(),
+                            change.changedAt(),
+                            change.orderId()};
+                })
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_AND_APPEND, args);
+    }
+
+    public List<OrderStatusHistoryEntry> findByOrderId(Long orderId) {
+        return jdbcTemplate.query(SELECT_BY_ORDER, (rs, rowNum) -> new OrderStatusHistoryEntry(
+                Optional.ofNullable(rs.getString("from_status")).map(OrderStatus::valueOf).orElse(null),
+                OrderStatus.valueOf(rs.getString("to_status")),
+                rs.getObject("changed_at", LocalDateTime.class)), orderId);
+    }
+
+    /**
+     * Reports how long the orders that left {@code status} in {@code [since, until)} had spent in it, as
+     * nearest-rank percentiles. Each figure is one query over the report index, so the cost grows with the
+     * window but never requires loading the durations into the application.
+     */
+    public StatusDurationReport reportTimeInStatus(OrderStatus status, LocalDateTime since, LocalDateTime until) {
+        Long orders = jdbcTemplate.queryForObject(COUNT_LEFT, Long.class, status.name(), since, until);
+        if (orders == null || orders == 0) {
+            return new StatusDurationReport(status, since, until, 0, null, null, null, null);
+        }
+        return new StatusDurationReport(status, since, until, orders,
+                percentileMillis(status, since, until, orders, 0.50),
+                percentileMillis(status, since, until, orders, 0.90),
+                percentileMillis(status, since, until, orders, 0.99),
+                percentileMillis(status, since, until, orders, 1.0));
+    }
+
+    private Long percentileMillis(OrderStatus status, LocalDateTime since, LocalDateTime until, long orders, double percentile) {
+        long rank = Math.max(0, (long) Math.ceil(percentile * orders) - 1);
+        Long micros = jdbcTemplate.queryForObject(SELECT_DURATION_AT_RANK, Long.class, status.name(), since, until, rank);
+        return micros != null ? micros / 1000 : null;
+    }
+}
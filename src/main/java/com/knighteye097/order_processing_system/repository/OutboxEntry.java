@@ -0,0 +1,10 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.OutboxEvent;
+
+/**
+ * An outbox event together with the status change it announces, which are stored by the same statement.
+ * The event must have its id and creation time assigned.
+ */
+public record OutboxEntry(OutboxEvent event, StatusChange change) {
+}
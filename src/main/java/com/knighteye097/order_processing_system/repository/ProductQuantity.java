@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.repository;
+
+/**
+ * Total quantity ordered of one product.
+ */
+public record ProductQuantity(Integer productId, long quantity) {
+}
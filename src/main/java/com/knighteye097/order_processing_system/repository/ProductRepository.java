@@ -0,0 +1,14 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Integer> {
+    Optional<Product> findByName(String name);
+
+    List<Product> findByNameIn(Collection<String> names);
+}
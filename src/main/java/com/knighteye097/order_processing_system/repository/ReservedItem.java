@@ -0,0 +1,7 @@
+package com.knighteye097.order_processing_system.repository;
+
+/**
+ * Quantity of one product taken out of stock by an order item.
+ */
+public record ReservedItem(Long itemId, Integer productId, long quantity) {
+}
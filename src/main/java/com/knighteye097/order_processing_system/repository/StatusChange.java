@@ -0,0 +1,11 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status change of an order, to be appended to its history. {@code from} is null for the order's creation.
+ */
+public record StatusChange(Long orderId, OrderStatus from, OrderStatus to, LocalDateTime changedAt) {
+}
@@ -0,0 +1,9 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+
+/**
+ * Number of orders in one status.
+ */
+public record StatusCount(OrderStatus status, long count) {
+}
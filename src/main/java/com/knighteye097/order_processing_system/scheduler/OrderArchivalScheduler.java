@@ -0,0 +1,50 @@
+package com.knighteye097.order_processing_system.scheduler;
+
+import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the hot order tables bounded by recent volume by archiving DELIVERED and CANCELLED orders
+ * once they are older than {@code orders.archive.min-age}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchivalScheduler {
+
+    private final OrderService orderService;
+    private final Duration minAge;
+    private final Timer runDuration;
+    private final DistributionSummary ordersArchived;
+
+    public OrderArchivalScheduler(OrderService orderService,
+                                  @Value("${orders.archive.min-age:90d}") Duration minAge,
+                                  MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.minAge = minAge;
+        this.runDuration = Timer.builder("orders.scheduler.archive.duration")
+                .description("Duration of an order archival run")
+                .register(meterRegistry);
+        this.ordersArchived = DistributionSummary.builder("orders.scheduler.archive.moved")
+                .description("Orders moved to the archive per archival run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 3 * * *}")
+    public void archiveTerminalOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        int archived = runDuration.record(() -> orderService.archiveTerminalOrders(cutoff));
+        ordersArchived.record(archived);
+        log.info("Archived {} terminal orders created before {}", archived, cutoff);
+    }
+}
@@ -1,21 +1,36 @@
 package com.knighteye097.order_processing_system.scheduler;
 
 import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+@Slf4j
 @Component
 public class OrderStatusScheduler {
 
     private final OrderService orderService;
+    private final Timer runDuration;
+    private final DistributionSummary ordersMoved;
 
-    public OrderStatusScheduler(OrderService orderService) {
+    public OrderStatusScheduler(OrderService orderService, MeterRegistry meterRegistry) {
         this.orderService = orderService;
+        this.runDuration = Timer.builder("orders.scheduler.pending.duration")
+                .description("Duration of a PENDING to PROCESSING scheduler run")
+                .register(meterRegistry);
+        this.ordersMoved = DistributionSummary.builder("orders.scheduler.pending.moved")
+                .description("Orders moved from PENDING to PROCESSING per scheduler run")
+                .register(meterRegistry);
     }
 
-    // Every 5 minutes
-    @Scheduled(fixedRate = 300000)
+    // Every 5 minutes by default; safe to run on every instance, which then split the pending orders between them
+    @Scheduled(fixedRateString = "${orders.scheduler.pending.interval:300000}")
     public void processPendingOrders() {
-        orderService.updatePendingOrdersToProcessing();
+        int moved = runDuration.record(orderService::updatePendingOrdersToProcessing);
+        ordersMoved.record(moved);
+        log.info("Moved {} orders from PENDING to PROCESSING", moved);
     }
 }
@@ -1,11 +1,20 @@
 package com.knighteye097.order_processing_system.service;
 
+import com.knighteye097.order_processing_system.dto.BatchOrderResult;
+import com.knighteye097.order_processing_system.dto.OrderPage;
 import com.knighteye097.order_processing_system.dto.OrderRequest;
 import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
 import com.knighteye097.order_processing_system.entity.OrderStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing orders.
@@ -14,15 +23,43 @@ import java.util.Optional;
 public interface OrderService {
 
     /**
-     * Creates a new order based on the given request.
+     * Creates a new order based on the given request, reserving stock for its stock-managed products.
      *
      * @param request the order request details
      * @return an OrderResponse representing the created order
+     * @throws com.knighteye097.order_processing_system.exception.InsufficientStockException if a product is out of stock
      */
     OrderResponse createOrder(OrderRequest request);
 
     /**
-     * Retrieves an order by its ID.
+     * Creates many orders at once, committing them in chunks.
+     * Each request is validated and persisted independently, so invalid or failing requests
+     * are reported without preventing the others from being created.
+     *
+     * @param requests the order requests, in submission order
+     * @return one result per request, in the same order, carrying either the new order ID or an error
+     */
+    List<BatchOrderResult> createOrders(List<OrderRequest> requests);
+
+    /**
+     * Creates the orders accepted by the intake queue in a single transaction. Each order is stored with its
+     * tracking id, and tracking ids that already have an order are skipped, so replaying a batch is harmless.
+     *
+     * @param requestsByTrackingId the validated order requests keyed by their intake tracking id
+     * @return the ID of the order created for each tracking id, including those created earlier
+     */
+    Map<String, Long> createQueuedOrders(Map<String, OrderRequest> requestsByTrackingId);
+
+    /**
+     * Looks up the order created for an intake tracking id.
+     *
+     * @param trackingId the tracking id returned when the order was accepted
+     * @return the order ID, or empty if no order has been created for it (yet)
+     */
+    Optional<Long> findOrderIdByTrackingId(String trackingId);
+
+    /**
+     * Retrieves an order by its ID, falling back to the archive for orders that have been archived.
      *
      * @param orderId the ID of the order to retrieve
      * @return an OrderResponse representing the matching order
@@ -30,12 +67,61 @@ public interface OrderService {
     OrderResponse getOrderById(Long orderId);
 
     /**
-     * Retrieves all orders, optionally filtered by order status.
+     * Retrieves one page of orders in ascending ID order, optionally filtered by order status.
      *
      * @param status an Optional filter for the order status
-     * @return a list of OrderResponse objects representing the orders
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of orders to return
+     * @return the page of orders and the cursor for the next page, which is null on the last page
      */
-    List<OrderResponse> getAllOrders(Optional<OrderStatus> status);
+    OrderPage getAllOrders(Optional<OrderStatus> status, String cursor, int limit);
+
+    /**
+     * Retrieves one page of the orders matching every filter set in {@code criteria}, in ascending ID order,
+     * or in order of creation when a creation time bound is set.
+     *
+     * @param criteria the filters to apply; unset filters match every order
+     * @param cursor   the opaque cursor returned with the previous page, or null for the first page
+     * @param limit    the maximum number of orders to return
+     * @return the page of orders and the cursor for the next page, which is null on the last page
+     */
+    OrderPage searchOrders(OrderSearchCriteria criteria, String cursor, int limit);
+
+    /**
+     * Streams all orders, optionally filtered by order status, to the given consumer one at a time
+     * without materializing the full result.
+     *
+     * @param status   an Optional filter for the order status
+     * @param consumer receives each order as soon as it has been read
+     */
+    void exportOrders(Optional<OrderStatus> status, Consumer<OrderResponse> consumer);
+
+    /**
+     * Returns the number of live orders in each status and the quantity ordered per product today.
+     * The figures are maintained incrementally, so this does not query the orders.
+     *
+     * @return the current order statistics
+     */
+    OrderStats getOrderStats();
+
+    /**
+     * Returns the status changes of an order, oldest first, starting with its creation. Changes are recorded
+     * atomically with the transition that made them, so a committed change is always listed.
+     *
+     * @param orderId the ID of the order, which may have been archived
+     * @return the recorded status changes
+     */
+    List<OrderStatusHistoryEntry> getOrderHistory(Long orderId);
+
+    /**
+     * Reports how long orders spent in a status, over the orders that left it within {@code [since, until)}.
+     *
+     * @param status the status to report on
+     * @param since  the start of the window, inclusive
+     * @param until  the end of the window, exclusive
+     * @return the number of such orders and percentiles of their time in the status
+     */
+    StatusDurationReport getTimeInStatus(OrderStatus status, LocalDateTime since, LocalDateTime until);
 
     /**
      * Updates the status of the order identified by the given ID.
@@ -46,14 +132,25 @@ public interface OrderService {
     void updateOrderStatus(Long orderId, OrderStatus status);
 
     /**
-     * Cancels the order identified by the given ID.
+     * Cancels the order identified by the given ID and returns its reserved stock.
      *
      * @param orderId the ID of the order to cancel
      */
     void cancelOrder(Long orderId);
 
     /**
-     * Updates all orders with a status of PENDING to PROCESSING.
+     * Updates all orders with a status of PENDING to PROCESSING, in committed chunks.
+     *
+     * @return the number of orders moved to PROCESSING
+     */
+    int updatePendingOrdersToProcessing();
+
+    /**
+     * Moves DELIVERED and CANCELLED orders created before the given time, with their items, into the archive.
+     * Archived orders are still returned by {@link #getOrderById(Long)} but no longer listed or exported.
+     *
+     * @param cutoff only orders created before this time are archived
+     * @return the number of orders archived
      */
-    void updatePendingOrdersToProcessing();
+    int archiveTerminalOrders(LocalDateTime cutoff);
 }
@@ -0,0 +1,107 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moves orders from one status to another in keyset-paginated chunks.
+ * Each chunk is claimed with {@code FOR UPDATE SKIP LOCKED} and moved by a single UPDATE committed in its own
+ * transaction, so a large backlog never has to be loaded into the persistence context or held in one long
+ * transaction. Because claimed rows are skipped rather than waited for, any number of workers, here or on other
+ * instances, can run at the same time: each moves a disjoint share of the orders and none is moved twice.
+ */
+@Component
+public class BulkStatusTransitionEngine {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int workers;
+
+    public BulkStatusTransitionEngine(OrderRepository orderRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${orders.bulk-transition.chunk-size:500}") int chunkSize,
+                                      @Value("${orders.bulk-transition.workers:1}") int workers) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("orders.bulk-transition.chunk-size must be positive");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("orders.bulk-transition.workers must be positive");
+        }
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Transitions every order currently in {@code from} to {@code to} that no concurrent caller has claimed,
+     * using {@code orders.bulk-transition.workers} parallel workers.
+     *
+     * @return the total number of orders moved by this call
+     */
+    public int transitionAll(OrderStatus from, OrderStatus to) {
+        if (workers == 1) {
+            return drain(from, to);
+        }
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("bulk-transition-", 0).factory())) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                results.add(executor.submit(() -> drain(from, to)));
+            }
+            int moved = 0;
+            for (Future<Integer> result : results) {
+                moved += result.get();
+            }
+            return moved;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while moving orders from " + from + " to " + to, ex);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private int drain(OrderStatus from, OrderStatus to) {
+        int moved = 0;
+        long lastId = 0L;
+        while (true) {
+            long afterId = lastId;
+            ChunkResult chunk = transactionTemplate.execute(status -> transitionChunk(from, to, afterId));
+            if (chunk == null || chunk.lastId() == null) {
+                return moved;
+            }
+            moved += chunk.moved();
+            lastId = chunk.lastId();
+        }
+    }
+
+    private ChunkResult transitionChunk(OrderStatus from, OrderStatus to, long afterId) {
+        List<Long> ids = orderRepository.claimIdsByStatusAfter(from.name(), afterId, chunkSize);
+        if (ids.isEmpty()) {
+            return new ChunkResult(0, null);
+        }
+        int moved = orderRepository.updateStatusByIdIn(from, to, ids);
+        ids.forEach(id -> eventPublisher.publishEvent(new OrderStatusChangedEvent(id, from, to)));
+        return new ChunkResult(moved, ids.get(ids.size() - 1));
+    }
+
+    private record ChunkResult(int moved, Long lastId) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Moves terminal orders into the archive tables in chunks, each committed in its own transaction,
+ * so that archiving a large backlog never holds locks on more than one chunk at a time.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final List<OrderStatus> TERMINAL_STATUSES =
+            Arrays.stream(OrderStatus.values()).filter(OrderStatus::isFinal).toList();
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderArchiver(OrderArchiveRepository orderArchiveRepository,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${orders.archive.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("orders.archive.chunk-size must be positive");
+        }
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Archives every terminal order created before {@code cutoff}.
+     *
+     * @return the total number of orders archived
+     */
+    public int archiveCreatedBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = orderArchiveRepository.findArchivableIds(cutoff, TERMINAL_STATUSES, chunkSize);
+                return ids.isEmpty() ? 0 : orderArchiveRepository.moveToArchive(ids, LocalDateTime.now());
+            });
+            if (moved == null || moved == 0) {
+                return archived;
+            }
+            archived += moved;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.exception.InvalidCursorException;
+import com.knighteye097.order_processing_system.repository.OrderKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursor handed out by paginated order listings.
+ * The cursor carries the ID of the last order on the previous page, and also its creation time for
+ * listings in creation order.
+ */
+final class OrderCursor {
+
+    private static final String PREFIX = "o:";
+    private static final String CREATED_PREFIX = "c:";
+
+    private OrderCursor() {
+    }
+
+    static String encode(Long lastOrderId) {
+        byte[] raw = (PREFIX + lastOrderId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static String encode(OrderKey last) {
+        byte[] raw = (CREATED_PREFIX + last.createdAt() + "," + last.id()).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(unwrap(cursor, PREFIX));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Decodes a cursor of a listing in creation order, returning null for the first page.
+     */
+    static OrderKey decodeCreated(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = unwrap(cursor, CREATED_PREFIX);
+            int comma = raw.lastIndexOf(',');
+            if (comma < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new OrderKey(LocalDateTime.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private static String unwrap(String cursor, String prefix) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!raw.startsWith(prefix)) {
+            throw new InvalidCursorException(cursor);
+        }
+        return raw.substring(prefix.length());
+    }
+}
@@ -0,0 +1,67 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.Order;
+import com.knighteye097.order_processing_system.entity.OrderItem;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Converts between order requests, order entities and order responses.
+ * Product names are translated to and from product ids by the caller-supplied dictionary.
+ */
+final class OrderMapper {
+
+    private OrderMapper() {
+    }
+
+    static Order toOrder(OrderRequest request, Map<String, Integer> productIds) {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+
+        List<OrderItem> items = request.getItems().stream()
+                .map(itemRequest -> new OrderItem(productIds.get(itemRequest.getProductName()), itemRequest.getQuantity()))
+                .toList();
+
+        items.forEach(item -> item.setOrder(order)); // Set order in each item
+        order.setItems(items);
+        return order;
+    }
+
+    static OrderResponse toResponse(Order order, Function<Integer, String> productNames) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(order.getId());
+        response.setStatus(order.getStatus());
+        response.setItems(
+                order.getItems().stream()
+                        .map(item -> new ItemDto(productNames.apply(item.getProductId()), item.getQuantity()))
+                        .collect(Collectors.toList())
+        );
+        response.setCreatedAt(order.getCreatedAt());
+        return response;
+    }
+
+    static Set<String> productNames(Collection<OrderRequest> requests) {
+        return requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .map(ItemDto::getProductName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    static Set<Integer> productIds(Collection<Order> orders) {
+        return orders.stream()
+                .flatMap(order -> order.getItems().stream())
+                .map(OrderItem::getProductId)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,96 +1,430 @@
 package com.knighteye097.order_processing_system.service.impl;
 
-import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.dto.BatchOrderResult;
+import com.knighteye097.order_processing_system.dto.OrderPage;
 import com.knighteye097.order_processing_system.dto.OrderRequest;
 import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
 import com.knighteye097.order_processing_system.entity.Order;
-import com.knighteye097.order_processing_system.entity.OrderItem;
 import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.exception.InsufficientStockException;
 import com.knighteye097.order_processing_system.exception.OrderNotFoundException;
+import com.knighteye097.order_processing_system.inventory.InventoryLedger;
+import com.knighteye097.order_processing_system.metrics.OrderMetrics;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import com.knighteye097.order_processing_system.repository.OrderExportRepository;
+import com.knighteye097.order_processing_system.repository.OrderKey;
 import com.knighteye097.order_processing_system.repository.OrderRepository;
+import com.knighteye097.order_processing_system.repository.OrderSearchRepository;
+import com.knighteye097.order_processing_system.repository.OrderSpecifications;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
 import com.knighteye097.order_processing_system.service.OrderService;
+import com.knighteye097.order_processing_system.stats.OrderStatistics;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
+@Timed(value = "orders.service", description = "Time spent in OrderService methods")
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
     private final OrderRepository orderRepository;
+    private final OrderSearchRepository orderSearchRepository;
+    private final OrderExportRepository orderExportRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final OrderResponseCache orderResponseCache;
+    private final ProductCatalog productCatalog;
+    private final InventoryLedger inventoryLedger;
+    private final BulkStatusTransitionEngine bulkStatusTransitionEngine;
+    private final OrderArchiver orderArchiver;
+    private final OrderStatistics orderStatistics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderMetrics orderMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int batchChunkSize;
 
-    public OrderServiceImpl(OrderRepository orderRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            OrderSearchRepository orderSearchRepository,
+                            OrderExportRepository orderExportRepository,
+                            OrderArchiveRepository orderArchiveRepository,
+                            OrderStatusHistoryRepository orderStatusHistoryRepository,
+                            OrderResponseCache orderResponseCache,
+                            ProductCatalog productCatalog,
+                            InventoryLedger inventoryLedger,
+                            BulkStatusTransitionEngine bulkStatusTransitionEngine,
+                            OrderArchiver orderArchiver,
+                            OrderStatistics orderStatistics,
+                            ApplicationEventPublisher eventPublisher,
+                            OrderMetrics orderMetrics,
+                            TransactionTemplate transactionTemplate,
+                            Validator validator,
+                            @Value("${orders.batch.chunk-size:100}") int batchChunkSize) {
         this.orderRepository = orderRepository;
+        this.orderSearchRepository = orderSearchRepository;
+        this.orderExportRepository = orderExportRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
+        this.orderResponseCache = orderResponseCache;
+        this.productCatalog = productCatalog;
+        this.inventoryLedger = inventoryLedger;
+        this.bulkStatusTransitionEngine = bulkStatusTransitionEngine;
+        this.orderArchiver = orderArchiver;
+        this.orderStatistics = orderStatistics;
+        this.eventPublisher = eventPublisher;
+        this.orderMetrics = orderMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.batchChunkSize = batchChunkSize;
     }
 
     @Override
+    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
-        Order order = new Order();
-        order.setStatus(OrderStatus.PENDING);
+        Map<String, Integer> productIds = productCatalog.resolveIds(OrderMapper.productNames(List.of(request)));
+        Order order = OrderMapper.toOrder(request, productIds);
+        inventoryLedger.reserve(order.getItems());
+        Order saved = orderRepository.save(order);
+        OrderResponse response = toResponse(saved);
+        eventPublisher.publishEvent(new OrderCreatedEvent(response));
+        return response;
+    }
 
-        List<OrderItem> items = request.getItems().stream()
-                .map(itemRequest -> new OrderItem(itemRequest.getProductName(), itemRequest.getQuantity()))
-                .toList();
+    @Override
+    public List<BatchOrderResult> createOrders(List<OrderRequest> requests) {
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<Integer> chunk = new ArrayList<>(batchChunkSize);
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = validate(requests.get(i));
+            if (violations != null) {
+                results[i] = BatchOrderResult.rejected(i, violations);
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == batchChunkSize) {
+                persistChunk(requests, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(requests, chunk, results);
+        }
+        return List.of(results);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> createQueuedOrders(Map<String, OrderRequest> requestsByTrackingId) {
+        Map<String, Long> orderIds = new HashMap<>();
+        orderRepository.findIdsByIntakeIdIn(requestsByTrackingId.keySet())
+                .forEach(existing -> orderIds.put(existing.intakeId(), existing.orderId()));
+        Map<String, OrderRequest> newRequests = new LinkedHashMap<>(requestsByTrackingId);
+        newRequests.keySet().removeAll(orderIds.keySet());
+        Map<String, Integer> productIds = productCatalog.resolveIds(OrderMapper.productNames(newRequests.values()));
+        List<Order> orders = new ArrayList<>();
+        newRequests.forEach((trackingId, request) -> {
+            Order order = OrderMapper.toOrder(request, productIds);
+            order.setIntakeId(trackingId);
+            inventoryLedger.reserve(order.getItems());
+            orders.add(order);
+        });
+        for (Order saved : orderRepository.saveAllAndFlush(orders)) {
+            orderIds.put(saved.getIntakeId(), saved.getId());
+            eventPublisher.publishEvent(new OrderCreatedEvent(toResponse(saved)));
+        }
+        return orderIds;
+    }
 
-        items.forEach(item -> item.setOrder(order)); // Set order in each item
-        order.setItems(items);
+    @Override
+    public Optional<Long> findOrderIdByTrackingId(String trackingId) {
+        return orderRepository.findIdByIntakeId(trackingId);
+    }
 
-        Order saved = orderRepository.save(order);
-        return toResponse(saved);
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "Order request must not be null";
+        }
+        var violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Commits a chunk of orders in one transaction. If the chunk fails as a whole, its orders
+     * are retried one by one so that a single bad order only rejects itself.
+     */
+    private void persistChunk(List<OrderRequest> requests, List<Integer> indexes, BatchOrderResult[] results) {
+        try {
+            List<Order> saved = transactionTemplate.execute(status -> {
+                Map<String, Integer> productIds = productCatalog.resolveIds(
+                        OrderMapper.productNames(indexes.stream().map(requests::get).toList()));
+                List<Order> orders = indexes.stream().map(i -> OrderMapper.toOrder(requests.get(i), productIds)).toList();
+                orders.forEach(order -> inventoryLedger.reserve(order.getItems()));
+                orderRepository.saveAllAndFlush(orders);
+                orders.forEach(order -> eventPublisher.publishEvent(new OrderCreatedEvent(toResponse(order))));
+                return orders;
+            });
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = BatchOrderResult.created(indexes.get(i), saved.get(i).getId());
+            }
+        } catch (DataAccessException | TransactionException | InsufficientStockException ex) {
+            log.warn("Batch chunk of {} orders failed, retrying individually", indexes.size(), ex);
+            for (Integer index : indexes) {
+                try {
+                    Order saved = transactionTemplate.execute(status -> {
+                        OrderRequest request = requests.get(index);
+                        Map<String, Integer> productIds =
+                                productCatalog.resolveIds(OrderMapper.productNames(List.of(request)));
+                        Order order = OrderMapper.toOrder(request, productIds);
+                        inventoryLedger.reserve(order.getItems());
+                        orderRepository.saveAndFlush(order);
+                        eventPublisher.publishEvent(new OrderCreatedEvent(toResponse(order)));
+                        return order;
+                    });
+                    results[index] = BatchOrderResult.created(index, saved.getId());
+                } catch (InsufficientStockException single) {
+                    results[index] = BatchOrderResult.rejected(index, single.getMessage());
+                } catch (DataAccessException | TransactionException single) {
+                    results[index] = BatchOrderResult.rejected(index, "Order could not be persisted");
+                }
+            }
+        }
     }
 
     @Override
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        return orderResponseCache.get(id, this::loadOrder);
+    }
+
+    /**
+     * Runs only on a cache miss, so that cache hits never open a transaction or touch a connection.
+     * Deliberately not read-only: a read-only transaction may be routed to a lagging replica, and what is loaded
+     * here is shared with every client through the cache until it expires or the order changes again.
+     */
+    private OrderResponse loadOrder(Long id) {
+        return transactionTemplate.execute(status -> loadOrderInTransaction(id));
+    }
+
+    private OrderResponse loadOrderInTransaction(Long id) {
+        return orderRepository.findWithItemsById(id)
+                .map(this::toResponse)
+                .or(() -> orderArchiveRepository.findById(id))
                 .orElseThrow(() -> new OrderNotFoundException(id));
-        return toResponse(order);
     }
 
     @Override
-    public List<OrderResponse> getAllOrders(Optional<OrderStatus> status) {
-        List<Order> orders = status.map(orderRepository::findByStatus)
-                .orElseGet(orderRepository::findAll);
-        return orders.stream().map(this::toResponse).toList();
+    @Transactional(readOnly = true)
+    public OrderPage getAllOrders(Optional<OrderStatus> status, String cursor, int limit) {
+        long afterId = OrderCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page follows without a count query
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<Long> ids = status
+                .map(s -> orderRepository.findIdPageByStatusAfter(s, afterId, fetchLimit))
+                .orElseGet(() -> orderRepository.findIdPageAfter(afterId, fetchLimit));
+        return loadPage(ids, limit);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public OrderPage searchOrders(OrderSearchCriteria criteria, String cursor, int limit) {
+        List<Specification<Order>> filters = new ArrayList<>();
+        if (criteria.getCreatedFrom() != null) {
+            filters.add(OrderSpecifications.createdAtOrAfter(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            filters.add(OrderSpecifications.createdBefore(criteria.getCreatedTo()));
+        }
+        if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+            filters.add(OrderSpecifications.statusIn(criteria.getStatuses()));
+        }
+        if (criteria.getProductName() != null) {
+            // A product the catalog has never seen cannot be in any order, so there is nothing to query
+            Optional<Integer> productId = productCatalog.findId(criteria.getProductName());
+            if (productId.isEmpty()) {
+                return new OrderPage(List.of(), null);
+            }
+            filters.add(OrderSpecifications.containsProduct(productId.get()));
+        }
+        if (criteria.getMinItems() != null) {
+            filters.add(OrderSpecifications.hasAtLeastItems(criteria.getMinItems()));
+        }
+        Specification<Order> spec = Specification.allOf(filters);
+        if (criteria.getCreatedFrom() != null || criteria.getCreatedTo() != null) {
+            // Page in the order of the creation time index, which a range on it cannot return in ID order
+            List<OrderKey> keys = orderSearchRepository.findCreatedPage(spec, OrderCursor.decodeCreated(cursor), limit + 1);
+            boolean hasMore = keys.size() > limit;
+            List<OrderKey> pageKeys = hasMore ? keys.subList(0, limit) : keys;
+            return loadPage(pageKeys.stream().map(OrderKey::id).toList(),
+                    hasMore ? OrderCursor.encode(pageKeys.get(pageKeys.size() - 1)) : null);
+        }
+        // Fetch one extra row to learn whether another page follows without a count query
+        List<Long> ids = orderSearchRepository.findIdPage(spec, OrderCursor.decode(cursor), limit + 1);
+        return loadPage(ids, limit);
+    }
+
+    /**
+     * Loads the orders of a page whose IDs were selected with one row more than {@code limit}.
+     */
+    private OrderPage loadPage(List<Long> ids, int limit) {
+        boolean hasMore = ids.size() > limit;
+        List<Long> pageIds = hasMore ? ids.subList(0, limit) : ids;
+        return loadPage(pageIds, hasMore ? OrderCursor.encode(pageIds.get(pageIds.size() - 1)) : null);
+    }
+
+    /**
+     * Loads the orders with the given IDs, in the order of the IDs.
+     */
+    private OrderPage loadPage(List<Long> pageIds, String nextCursor) {
+        if (pageIds.isEmpty()) {
+            return new OrderPage(List.of(), null);
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < pageIds.size(); i++) {
+            positions.put(pageIds.get(i), i);
+        }
+        // Second phase: load the page's orders and items together instead of one item query per order
+        List<Order> page = new ArrayList<>(orderRepository.findAllWithItemsByIdIn(pageIds));
+        page.sort(Comparator.comparing(order -> positions.get(order.getId())));
+        // Resolve every product on the page at once, so a cold catalog costs one query rather than one per order
+        productCatalog.namesOf(OrderMapper.productIds(page));
+        List<OrderResponse> orders = page.stream()
+                .map(this::toResponse)
+                .toList();
+        return new OrderPage(orders, nextCursor);
+    }
+
+    private OrderResponse toResponse(Order order) {
+        Map<Integer, String> productNames = productCatalog.namesOf(OrderMapper.productIds(List.of(order)));
+        return OrderMapper.toResponse(order, productNames::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(Optional<OrderStatus> status, Consumer<OrderResponse> consumer) {
+        orderExportRepository.streamOrders(status, consumer);
+    }
+
+    @Override
+    public OrderStats getOrderStats() {
+        return orderStatistics.snapshot();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderStatusHistoryEntry> getOrderHistory(Long id) {
+        List<OrderStatusHistoryEntry> history = orderStatusHistoryRepository.findByOrderId(id);
+        if (history.isEmpty() && !orderRepository.existsById(id) && orderArchiveRepository.findStatusById(id).isEmpty()) {
+            throw new OrderNotFoundException(id);
+        }
+        return history;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatusDurationReport getTimeInStatus(OrderStatus status, LocalDateTime since, LocalDateTime until) {
+        return orderStatusHistoryRepository.reportTimeInStatus(status, since, until);
+    }
+
+    @Override
+    @Transactional
     public void updateOrderStatus(Long id, OrderStatus status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
-        order.setStatus(status);
-        orderRepository.save(order);
+        transition(id, status);
     }
 
     @Override
+    @Transactional
     public void cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+        try {
+            transition(id, OrderStatus.CANCELLED);
+        } catch (IllegalStateException ex) {
+            orderMetrics.cancelRejected();
+            throw new IllegalStateException("Only PENDING orders can be cancelled.", ex);
+        }
+    }
 
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new IllegalStateException("Only PENDING orders can be cancelled.");
+    /**
+     * Moves an order to {@code target} with a compare-and-set update guarded by the status it is expected
+     * to have, so no row lock is held and two concurrent transitions cannot both succeed.
+     * The expected status is guessed without a query, which makes the common case a single statement;
+     * when the guess is wrong the current status is read and the update retried a bounded number of times.
+     */
+    private void transition(Long id, OrderStatus target) {
+        OrderStatus expected = expectedSource(id, target);
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            if (expected.canTransitionTo(target)
+                    && orderRepository.compareAndSetStatus(id, expected, target) == 1) {
+                if (target == OrderStatus.CANCELLED && inventoryLedger.isTracking()) {
+                    inventoryLedger.release(orderRepository.sumReservedQuantityByProductForOrder(id));
+                }
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(id, expected, target));
+                return;
+            }
+            OrderStatus current = orderRepository.findStatusById(id)
+                    .or(() -> orderArchiveRepository.findStatusById(id))
+                    .orElseThrow(() -> new OrderNotFoundException(id));
+            if (!current.canTransitionTo(target)) {
+                throw new IllegalStateException("Order " + id + " cannot move from " + current + " to " + target + ".");
+            }
+            expected = current;
         }
+        throw new ConcurrencyFailureException("Order " + id + " changed concurrently " + MAX_TRANSITION_ATTEMPTS
+                + " times while moving to " + target + ".");
+    }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+    private OrderStatus expectedSource(Long id, OrderStatus target) {
+        OrderResponse cached = orderResponseCache.getIfPresent(id);
+        if (cached != null && target.sources().contains(cached.getStatus())) {
+            return cached.getStatus();
+        }
+        // With no usable cache entry, any legal source is as good a guess as another
+        return target.sources().stream().findFirst().orElse(target);
     }
 
     @Override
-    public void updatePendingOrdersToProcessing() {
-        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
-        pendingOrders.forEach(order -> order.setStatus(OrderStatus.PROCESSING));
-        orderRepository.saveAll(pendingOrders);
+    public int updatePendingOrdersToProcessing() {
+        return bulkStatusTransitionEngine.transitionAll(OrderStatus.PENDING, OrderStatus.PROCESSING);
     }
 
-    private OrderResponse toResponse(Order order) {
-        OrderResponse response = new OrderResponse();
-        response.setOrderId(order.getId());
-        response.setStatus(order.getStatus());
-        response.setItems(
-                order.getItems().stream()
-                        .map(item -> new ItemDto(item.getProductName(), item.getQuantity()))
-                        .collect(Collectors.toList())
-        );
-        response.setCreatedAt(order.getCreatedAt());
-        return response;
+    @Override
+    public int archiveTerminalOrders(LocalDateTime cutoff) {
+        return orderArchiver.archiveCreatedBefore(cutoff);
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.knighteye097.order_processing_system.stats;
+
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.repository.OrderRepository;
+import com.knighteye097.order_processing_system.repository.ProductQuantity;
+import com.knighteye097.order_processing_system.repository.StatusCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained order counts per status and item quantities per product for the current day.
+ * Counters are updated from committed order events, so reading them never touches the database, and are
+ * periodically reconciled with the live tables to correct any drift, such as orders removed by archival.
+ */
+@Slf4j
+@Component
+public class OrderStatistics {
+
+    private final OrderRepository orderRepository;
+    private final ProductCatalog productCatalog;
+    private final Map<OrderStatus, LongAdder> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private final AtomicReference<DailyProducts> itemsByProduct =
+            new AtomicReference<>(new DailyProducts(LocalDate.now(), new ConcurrentHashMap<>()));
+    private volatile LocalDateTime reconciledAt;
+
+    public OrderStatistics(OrderRepository orderRepository, ProductCatalog productCatalog) {
+        this.orderRepository = orderRepository;
+        this.productCatalog = productCatalog;
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, new LongAdder());
+        }
+    }
+
+    public OrderStats snapshot() {
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        ordersByStatus.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        DailyProducts products = today();
+        Map<String, Long> productQuantities = new HashMap<>();
+        products.quantities().forEach((product, quantity) -> productQuantities.put(product, quantity.sum()));
+        return new OrderStats(statusCounts, products.day(), productQuantities, reconciledAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        ordersByStatus.get(event.order().getStatus()).increment();
+        DailyProducts products = today();
+        for (ItemDto item : event.order().getItems()) {
+            if (item.getProductName() == null) {
+                continue;
+            }
+            products.quantities().computeIfAbsent(item.getProductName(), product -> new LongAdder()).add(item.getQuantity());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        ordersByStatus.get(event.from()).decrement();
+        ordersByStatus.get(event.to()).increment();
+    }
+
+    /**
+     * Moves each counter by its difference from the database total, down to zero for products no longer in
+     * the day's orders. Events that commit while the totals are being read may be counted twice or not at all;
+     * the error is bounded by those in-flight events and is corrected by the next run.
+     */
+    @Scheduled(fixedDelayString = "${orders.stats.reconcile-interval:300000}")
+    public void reconcile() {
+        Map<OrderStatus, Long> before = new EnumMap<>(OrderStatus.class);
+        ordersByStatus.forEach((status, count) -> before.put(status, count.sum()));
+        Map<OrderStatus, Long> actual = new EnumMap<>(OrderStatus.class);
+        for (StatusCount count : orderRepository.countByStatus()) {
+            actual.put(count.status(), count.count());
+        }
+        // Adjust by the difference rather than resetting, so increments made meanwhile are kept
+        ordersByStatus.forEach((status, count) -> count.add(actual.getOrDefault(status, 0L) - before.get(status)));
+
+        DailyProducts products = today();
+        Map<String, Long> productsBefore = new HashMap<>();
+        products.quantities().forEach((product, quantity) -> productsBefore.put(product, quantity.sum()));
+        List<ProductQuantity> totals = orderRepository.sumQuantityByProductCreatedSince(products.day().atStartOfDay());
+        Map<Integer, String> productNames = productCatalog.namesOf(totals.stream().map(ProductQuantity::productId).toList());
+        Map<String, Long> productsActual = new HashMap<>();
+        for (ProductQuantity total : totals) {
+            String productName = productNames.get(total.productId());
+            if (productName != null) {
+                productsActual.merge(productName, total.quantity(), Long::sum);
+            }
+        }
+        // Products counted here but gone from the database, such as those of archived orders, drop to zero
+        productsBefore.keySet().forEach(productName -> productsActual.putIfAbsent(productName, 0L));
+        productsActual.forEach((productName, quantity) -> products.quantities()
+                .computeIfAbsent(productName, product -> new LongAdder())
+                .add(quantity - productsBefore.getOrDefault(productName, 0L)));
+        reconciledAt = LocalDateTime.now();
+        log.debug("Reconciled order statistics with the database");
+    }
+
+    private DailyProducts today() {
+        DailyProducts current = itemsByProduct.get();
+        LocalDate day = LocalDate.now();
+        if (!current.day().equals(day)) {
+            itemsByProduct.compareAndSet(current, new DailyProducts(day, new ConcurrentHashMap<>()));
+            current = itemsByProduct.get();
+        }
+        return current;
+    }
+
+    private record DailyProducts(LocalDate day, ConcurrentHashMap<String, LongAdder> quantities) {
+    }
+}
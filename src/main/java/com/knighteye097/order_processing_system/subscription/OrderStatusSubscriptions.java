@@ -0,0 +1,132 @@
+package com.knighteye097.order_processing_system.subscription;
+
+import com.knighteye097.order_processing_system.dto.OrderStatusUpdate;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-memory registry of Server-Sent Events subscriptions to order status changes.
+ * Subscriptions are held as async servlet responses, so an idle subscriber costs an emitter and a map entry
+ * rather than a thread. Committed status changes are pushed to the order's subscribers, and the stream is
+ * completed once the order reaches a final status.
+ */
+@Slf4j
+@Component
+public class OrderStatusSubscriptions {
+
+    static final String STATUS_EVENT = "status";
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final long timeoutMillis;
+
+    public OrderStatusSubscriptions(@Value("${orders.subscriptions.timeout:30m}") Duration timeout,
+                                    MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("orders.subscriptions.active", active, AtomicInteger::get)
+                .description("Open order status subscriptions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a subscription to the given order. It is registered before the current status is sent,
+     * so a change committed in between is delivered rather than lost.
+     *
+     * @param orderId the ID of the order to watch
+     * @param current supplies the order's current status, and throws if the order does not exist
+     * @return the emitter backing the subscription
+     */
+    public SseEmitter subscribe(Long orderId, Supplier<OrderStatus> current) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(orderId, emitter);
+        OrderStatus status;
+        try {
+            status = current.get();
+        } catch (RuntimeException ex) {
+            unregister(orderId, emitter);
+            throw ex;
+        }
+        send(orderId, emitter, status);
+        return emitter;
+    }
+
+    private void register(Long orderId, SseEmitter emitter) {
+        subscribers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        active.incrementAndGet();
+        emitter.onCompletion(() -> unregister(orderId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> emitter.complete());
+    }
+
+    private void unregister(Long orderId, SseEmitter emitter) {
+        subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                active.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.orderId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(event.orderId(), emitter, event.to());
+        }
+    }
+
+    private void send(Long orderId, SseEmitter emitter, OrderStatus status) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(STATUS_EVENT)
+                    .id(status.name())
+                    .data(new OrderStatusUpdate(orderId, status), MediaType.APPLICATION_JSON));
+            if (status.isFinal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the emitter already completed; drop the subscription
+            log.debug("Dropping status subscription for order {}", orderId, ex);
+            emitter.completeWithError(ex);
+            unregister(orderId, emitter);
+        }
+    }
+
+    /**
+     * Sends a comment line to every subscriber so that idle streams survive proxy timeouts
+     * and subscriptions of disconnected clients are detected and released.
+     */
+    @Scheduled(fixedDelayString = "${orders.subscriptions.heartbeat-interval:30000}")
+    public void heartbeat() {
+        subscribers.forEach((orderId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException ex) {
+                    emitter.completeWithError(ex);
+                    unregister(orderId, emitter);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,314 @@
+package com.knighteye097.order_processing_system.wire;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol Buffers encoding of the order API messages described by {@code src/main/proto/orders.proto}.
+ * Written against the wire format directly, so neither generated classes nor the protobuf runtime are needed;
+ * clients can still generate their own code from the schema. Unknown fields are skipped when decoding, which lets
+ * either side add fields first.
+ */
+public final class OrderProtobufCodec {
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    // Item
+    private static final int ITEM_PRODUCT_NAME = 1;
+    private static final int ITEM_QUANTITY = 2;
+    // OrderRequest
+    private static final int REQUEST_ITEMS = 1;
+    // OrderResponse
+    private static final int RESPONSE_ORDER_ID = 1;
+    private static final int RESPONSE_STATUS = 2;
+    private static final int RESPONSE_ITEMS = 3;
+    private static final int RESPONSE_CREATED_AT_MICROS = 4;
+    // OrderList
+    private static final int LIST_ORDERS = 1;
+
+    private OrderProtobufCodec() {
+    }
+
+    public static byte[] encodeRequest(OrderRequest request) {
+        Writer writer = new Writer();
+        writeItems(writer, REQUEST_ITEMS, request.getItems());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encodeResponse(OrderResponse response) {
+        return responseWriter(response).toByteArray();
+    }
+
+    public static byte[] encodeResponses(List<OrderResponse> responses) {
+        Writer writer = new Writer();
+        responses.forEach(response -> writer.message(LIST_ORDERS, responseWriter(response)));
+        return writer.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not a valid OrderRequest message
+     */
+    public static OrderRequest decodeRequest(byte[] bytes) {
+        Reader reader = new Reader(bytes, 0, bytes.length);
+        OrderRequest request = new OrderRequest();
+        List<ItemDto> items = new ArrayList<>();
+        while (reader.hasMore()) {
+            int tag = reader.tag();
+            if (tag == key(REQUEST_ITEMS, LENGTH_DELIMITED)) {
+                items.add(readItem(reader.message()));
+            } else {
+                reader.skip(tag);
+            }
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not a valid OrderResponse message
+     */
+    public static OrderResponse decodeResponse(byte[] bytes) {
+        return readResponse(new Reader(bytes, 0, bytes.length));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not a valid OrderList message
+     */
+    public static List<OrderResponse> decodeResponses(byte[] bytes) {
+        Reader reader = new Reader(bytes, 0, bytes.length);
+        List<OrderResponse> responses = new ArrayList<>();
+        while (reader.hasMore()) {
+            int tag = reader.tag();
+            if (tag == key(LIST_ORDERS, LENGTH_DELIMITED)) {
+                responses.add(readResponse(reader.message()));
+            } else {
+                reader.skip(tag);
+            }
+        }
+        return responses;
+    }
+
+    private static Writer responseWriter(OrderResponse response) {
+        Writer writer = new Writer();
+        if (response.getOrderId() != null) {
+            writer.int64(RESPONSE_ORDER_ID, response.getOrderId());
+        }
+        if (response.getStatus() != null) {
+            writer.int64(RESPONSE_STATUS, statusNumber(response.getStatus()));
+        }
+        writeItems(writer, RESPONSE_ITEMS, response.getItems());
+        if (response.getCreatedAt() != null) {
+            writer.int64(RESPONSE_CREATED_AT_MICROS,
+                    ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), response.getCreatedAt()));
+        }
+        return writer;
+    }
+
+    private static void writeItems(Writer writer, int field, List<ItemDto> items) {
+        if (items == null) {
+            return;
+        }
+        for (ItemDto item : items) {
+            Writer itemWriter = new Writer();
+            itemWriter.string(ITEM_PRODUCT_NAME, item.getProductName());
+            itemWriter.int64(ITEM_QUANTITY, item.getQuantity());
+            writer.message(field, itemWriter);
+        }
+    }
+
+    private static OrderResponse readResponse(Reader reader) {
+        OrderResponse response = new OrderResponse();
+        List<ItemDto> items = new ArrayList<>();
+        while (reader.hasMore()) {
+            int tag = reader.tag();
+            if (tag == key(RESPONSE_ORDER_ID, VARINT)) {
+                response.setOrderId(reader.varint());
+            } else if (tag == key(RESPONSE_STATUS, VARINT)) {
+                response.setStatus(status(reader.varint()));
+            } else if (tag == key(RESPONSE_ITEMS, LENGTH_DELIMITED)) {
+                items.add(readItem(reader.message()));
+            } else if (tag == key(RESPONSE_CREATED_AT_MICROS, VARINT)) {
+                response.setCreatedAt(LocalDateTime.of(1970, 1, 1, 0, 0).plus(reader.varint(), ChronoUnit.MICROS));
+            } else {
+                reader.skip(tag);
+            }
+        }
+        response.setItems(items);
+        return response;
+    }
+
+    private static ItemDto readItem(Reader reader) {
+        ItemDto item = new ItemDto();
+        // proto3 omits default values, so an absent name is the empty string
+        item.setProductName("");
+        while (reader.hasMore()) {
+            int tag = reader.tag();
+            if (tag == key(ITEM_PRODUCT_NAME, LENGTH_DELIMITED)) {
+                item.setProductName(reader.string());
+            } else if (tag == key(ITEM_QUANTITY, VARINT)) {
+                item.setQuantity((int) reader.varint());
+            } else {
+                reader.skip(tag);
+            }
+        }
+        return item;
+    }
+
+    private static int statusNumber(OrderStatus status) {
+        return switch (status) {
+            case PENDING -> 1;
+            case PROCESSING -> 2;
+            case SHIPPED -> 3;
+            case DELIVERED -> 4;
+            case CANCELLED -> 5;
+        };
+    }
+
+    private static OrderStatus status(long number) {
+        return switch ((int) number) {
+            case 1 -> OrderStatus.PENDING;
+            case 2 -> OrderStatus.PROCESSING;
+            case 3 -> OrderStatus.SHIPPED;
+            case 4 -> OrderStatus.DELIVERED;
+            case 5 -> OrderStatus.CANCELLED;
+            default -> null;
+        };
+    }
+
+    private static int key(int field, int wireType) {
+        return (field << 3) | wireType;
+    }
+
+    private static final class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        /**
+         * Writes a varint field, omitted when zero as proto3 does. Negative values take ten bytes, as in protobuf.
+         */
+        void int64(int field, long value) {
+            if (value != 0) {
+                varint(key(field, VARINT));
+                varint(value);
+            }
+        }
+
+        void string(int field, String value) {
+            if (value != null && !value.isEmpty()) {
+                bytes(field, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * Writes an embedded message; always present, even when empty, so repeated elements are never lost.
+         */
+        void message(int field, Writer message) {
+            bytes(field, message.toByteArray());
+        }
+
+        private void bytes(int field, byte[] value) {
+            varint(key(field, LENGTH_DELIMITED));
+            varint(value.length);
+            out.writeBytes(value);
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        Reader(byte[] buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        boolean hasMore() {
+            return position < limit;
+        }
+
+        int tag() {
+            return (int) varint();
+        }
+
+        long varint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw new IllegalArgumentException("Truncated varint");
+                }
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        Reader message() {
+            int length = length();
+            Reader message = new Reader(buffer, position, position + length);
+            position += length;
+            return message;
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        void skip(int tag) {
+            switch (tag & 0x7) {
+                case VARINT -> varint();
+                case FIXED64 -> advance(8);
+                case LENGTH_DELIMITED -> advance(length());
+                case FIXED32 -> advance(4);
+                default -> throw new IllegalArgumentException("Unsupported wire type " + (tag & 0x7));
+            }
+        }
+
+        private int length() {
+            long length = varint();
+            if (length < 0 || length > limit - position) {
+                throw new IllegalArgumentException("Length " + length + " exceeds the message");
+            }
+            return (int) length;
+        }
+
+        private void advance(int bytes) {
+            if (bytes > limit - position) {
+                throw new IllegalArgumentException("Truncated field");
+            }
+            position += bytes;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.knighteye097.order_processing_system.wire;
+
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads {@link OrderRequest} and writes {@link OrderResponse} and lists of them as {@value #APPLICATION_PROTOBUF_VALUE}
+ * with {@link OrderProtobufCodec}. Registered after the JSON converters, so JSON stays the default and this
+ * representation is only chosen when a client asks for it.
+ */
+public class OrderProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    public OrderProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == OrderRequest.class || clazz == OrderResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == OrderRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == OrderResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == OrderRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (isResponse(type != null ? type : clazz) || isResponseList(type)) && canWrite(mediaType);
+    }
+
+    /**
+     * Also advertises protobuf for any {@link List}, because content negotiation only knows the runtime class of a
+     * list body; {@link #canWrite(Type, Class, MediaType)} still checks the element type before anything is written.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    private static boolean isResponse(Type type) {
+        return type == OrderResponse.class;
+    }
+
+    private static boolean isResponseList(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() == List.class
+                && isResponse(parameterized.getActualTypeArguments()[0]);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(OrderRequest.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return OrderProtobufCodec.decodeRequest(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException("Malformed protobuf order: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = body instanceof OrderResponse response
+                ? OrderProtobufCodec.encodeResponse(response)
+                : OrderProtobufCodec.encodeResponses((List<OrderResponse>) body);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,20 @@
+package com.knighteye097.order_processing_system.wire;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Adds the protobuf representation of orders behind the default converters, so clients opt in with
+ * {@code Accept} and {@code Content-Type: application/x-protobuf}.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new OrderProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,18 @@
+-- Outbox ids are allocated in blocks per instance, so they do not order the events of one order across instances.
+-- order_sequence does: it is the depth of the status the event left the order in (PENDING 0, PROCESSING and
+-- CANCELLED 1, SHIPPED 2, DELIVERED 3), which every status change increases.
+
+alter table order_outbox add column order_sequence integer not null default 0;
+
+-- Only unpublished events still need ordering; the payload of a status change names the status it moved to
+update order_outbox set order_sequence = case
+        when payload like '%"to":"PROCESSING"%' then 1
+        when payload like '%"to":"CANCELLED"%' then 1
+        when payload like '%"to":"SHIPPED"%' then 2
+        when payload like '%"to":"DELIVERED"%' then 3
+        else 0
+    end
+where published_at is null and event_type = 'ORDER_STATUS_CHANGED';
+
+-- Finds whether an order has an earlier unpublished event when claiming the next one
+create index idx_order_outbox_order_unpublished on order_outbox (order_id, published_at, order_sequence);
@@ -0,0 +1,8 @@
+-- Records on each order item whether its quantity was taken out of stock. stock_pending is true while the
+-- reservation exists only in the memory of the instance that made it, false once written back to inventory, and
+-- null for products that were not stock-managed when ordered, which cancelling the order must not restock.
+-- Items left pending by an instance that stopped before writing them back are applied by the other instances.
+
+alter table order_items add column stock_pending boolean;
+
+create index idx_order_items_stock_pending on order_items (stock_pending);
@@ -0,0 +1,48 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto=update).
+-- Every statement is idempotent so that databases created that way can be adopted as they are.
+
+create table if not exists id_generator (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+);
+
+create table if not exists orders_table (
+    id bigint not null,
+    created_at datetime(6),
+    status enum ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED'),
+    primary key (id)
+);
+
+create table if not exists order_items (
+    id bigint not null,
+    product_name varchar(255),
+    quantity integer not null,
+    order_id bigint,
+    primary key (id),
+    index idx_order_items_order_id (order_id),
+    constraint fk_order_items_order foreign key (order_id) references orders_table (id)
+);
+
+create table if not exists order_outbox (
+    id bigint not null,
+    order_id bigint not null,
+    event_type enum ('ORDER_CREATED','ORDER_STATUS_CHANGED') not null,
+    payload longtext not null,
+    created_at datetime(6) not null,
+    published_at datetime(6),
+    primary key (id)
+);
+
+-- Pooled generators hand out the block ending at next_val, so start one full block above the highest existing ID
+insert into id_generator (sequence_name, next_val)
+select 'orders_table', coalesce(max(id), 0) + 50 from orders_table
+where not exists (select 1 from id_generator where sequence_name = 'orders_table');
+
+insert into id_generator (sequence_name, next_val)
+select 'order_items', coalesce(max(id), 0) + 500 from order_items
+where not exists (select 1 from id_generator where sequence_name = 'order_items');
+
+insert into id_generator (sequence_name, next_val)
+select 'order_outbox', coalesce(max(id), 0) + 500 from order_outbox
+where not exists (select 1 from id_generator where sequence_name = 'order_outbox');
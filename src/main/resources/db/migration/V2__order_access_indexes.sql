@@ -0,0 +1,11 @@
+-- Scheduler chunks and filtered listing: where status = ? and id > ? order by id
+create index idx_orders_status_id on orders_table (status, id);
+
+-- Reports and archival over creation time ranges
+create index idx_orders_created_at on orders_table (created_at);
+
+-- Relay: oldest unpublished events first, and purge of published events by age
+create index idx_order_outbox_published_at_id on order_outbox (published_at, id);
+
+-- order_items (order_id) needs no index here: InnoDB requires one for the foreign key, named
+-- idx_order_items_order_id in V1 and after the generated constraint name in schemas adopted from Hibernate
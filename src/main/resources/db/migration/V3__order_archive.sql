@@ -0,0 +1,20 @@
+-- Terminal orders moved out of the hot tables by the archival job.
+-- Status is stored as plain text so the archive does not have to follow changes to the live status enum.
+
+create table orders_archive (
+    id bigint not null,
+    created_at datetime(6),
+    status varchar(16) not null,
+    archived_at datetime(6) not null,
+    primary key (id)
+);
+
+create table order_items_archive (
+    id bigint not null,
+    product_name varchar(255),
+    quantity integer not null,
+    order_id bigint not null,
+    primary key (id),
+    index idx_order_items_archive_order_id (order_id)
+);
+
@@ -0,0 +1,11 @@
+-- Durable record of createOrder requests made with an Idempotency-Key header (orders.idempotency.persistent=true).
+-- request_hash is the SHA-256 of the request, so a reused key is only taken for a retry when the requests match.
+
+create table idempotency_keys (
+    idempotency_key varchar(255) not null,
+    request_hash varbinary(32) not null,
+    response longtext not null,
+    created_at datetime(6) not null,
+    primary key (idempotency_key),
+    index idx_idempotency_keys_created_at (created_at)
+);
@@ -0,0 +1,6 @@
+-- Tracking id of orders accepted through the asynchronous intake queue. Unique, so replaying the intake log
+-- after a crash can never create the same order twice.
+
+alter table orders_table add column intake_id varchar(36);
+
+create unique index uk_orders_intake_id on orders_table (intake_id);
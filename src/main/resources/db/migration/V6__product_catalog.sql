@@ -0,0 +1,25 @@
+-- Product names move out of order_items into a dictionary table, so each line item stores a four-byte id
+-- instead of repeating the name. Existing names are backfilled; archived items keep their names as they are.
+-- Names use a binary collation: under the default case-insensitive one "Lamp" and "lamp" would share a product,
+-- and a lookup of one would return the other.
+
+create table products (
+    id integer not null auto_increment,
+    name varchar(255) character set utf8mb4 collate utf8mb4_bin not null,
+    primary key (id),
+    constraint uk_products_name unique (name)
+);
+
+-- Not select distinct: that would compare with the case-insensitive collation of order_items and drop variants
+insert ignore into products (name)
+select product_name from order_items where product_name is not null;
+
+alter table order_items add column product_id integer;
+
+update order_items set product_id = (select p.id from products p where p.name = order_items.product_name);
+
+alter table order_items drop column product_name;
+
+create index idx_order_items_product_id on order_items (product_id);
+
+alter table order_items add constraint fk_order_items_product foreign key (product_id) references products (id);
@@ -0,0 +1,9 @@
+-- Stock on hand per product. Products without a row are not stock-managed and can always be ordered.
+-- The application reserves stock in memory and writes the net change back here in batches.
+
+create table inventory (
+    product_id integer not null,
+    available bigint not null,
+    primary key (product_id),
+    constraint fk_inventory_product foreign key (product_id) references products (id)
+);
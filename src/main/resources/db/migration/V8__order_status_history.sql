@@ -0,0 +1,21 @@
+-- Append-only log of order status changes, one row per change including creation (from_status null).
+-- Rows are written in the transaction that makes the change, in the same statement as the change's outbox
+-- event, so recording history adds no round trip to the transition. There is no foreign key to orders_table:
+-- an order's history outlives its archival. entered_at is when the order reached from_status, so a row also holds the time
+-- the order spent in that status.
+
+create table order_status_history (
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    from_status enum ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED'),
+    to_status enum ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED') not null,
+    entered_at datetime(6) not null,
+    changed_at datetime(6) not null,
+    primary key (id)
+);
+
+-- History of one order, oldest first
+create index idx_order_status_history_order_id on order_status_history (order_id, id);
+
+-- Time-in-status reports over a window of changes; includes entered_at so the report only reads the index
+create index idx_order_status_history_from_changed on order_status_history (from_status, changed_at, entered_at);
@@ -0,0 +1,13 @@
+-- Order search. Items never change after creation, so their count is stored on the order and filtered on
+-- without touching order_items.
+
+alter table orders_table add column item_count integer not null default 0;
+
+update orders_table set item_count = (select count(*) from order_items i where i.order_id = orders_table.id);
+
+-- Orders in a creation time range are paged by a (created_at, id) keyset along idx_orders_created_at from V2:
+-- InnoDB appends the primary key to every secondary index, so that index already holds (created_at, id).
+
+-- Orders containing a product, answered from the index alone. The single-column product index stays,
+-- since it backs fk_order_items_product.
+create index idx_order_items_product_order on order_items (product_id, order_id);
@@ -0,0 +1,59 @@
+package com.knighteye097.order_processing_system.cache;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class OrderResponseCacheTest {
+
+    private final OrderResponseCache cache = new OrderResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    private static OrderResponse order(Long orderId) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(orderId);
+        response.setCreatedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+        response.setStatus(OrderStatus.PENDING);
+        response.setItems(new ArrayList<>(List.of(new ItemDto("Lamp", 2))));
+        return response;
+    }
+
+    @Test
+    @DisplayName("Changing a response after caching it does not change what the cache serves")
+    void put_SourceModifiedAfterwards_CachedValueUnchanged() {
+        OrderResponse original = order(1L);
+        cache.put(original);
+
+        original.setStatus(OrderStatus.CANCELLED);
+        original.getItems().get(0).setQuantity(5);
+        original.getItems().add(new ItemDto("Desk", 1));
+
+        assertEquals(order(1L), cache.getIfPresent(1L));
+    }
+
+    @Test
+    @DisplayName("Each read returns its own copy, so one caller's changes are not seen by the next")
+    void get_ReturnedResponseModified_NextReadUnaffected() {
+        OrderResponse first = cache.get(1L, OrderResponseCacheTest::order);
+        first.setStatus(OrderStatus.SHIPPED);
+        first.getItems().get(0).setProductName("Desk");
+
+        OrderResponse second = cache.get(1L, id -> {
+            throw new AssertionError("loaded again");
+        });
+
+        assertNotSame(first, second);
+        assertEquals(order(1L), second);
+        assertEquals(order(1L), cache.getIfPresent(1L));
+    }
+}
@@ -0,0 +1,109 @@
+package com.knighteye097.order_processing_system.config;
+
+import com.knighteye097.order_processing_system.datasource.ReadWriteRoutingDataSource;
+import com.knighteye097.order_processing_system.metrics.StatementCountingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HikariPoolSizingValidatorTest {
+
+    private final HikariPoolSizingValidator validator = new HikariPoolSizingValidator(10, Duration.ofSeconds(5));
+
+    // Never started: the validator only reads the settings, so no database is needed
+    private static HikariDataSource pool(String name, int maxPoolSize, long connectionTimeoutMillis) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(maxPoolSize);
+        pool.setConnectionTimeout(connectionTimeoutMillis);
+        return pool;
+    }
+
+    /**
+     * Wraps the pools the way the application does with a read replica.
+     */
+    private static DataSource routed(HikariDataSource primary, HikariDataSource replica) {
+        return new StatementCountingDataSource(new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, new SimpleMeterRegistry())));
+    }
+
+    // Converts the Duration properties the way a Spring Boot application context does
+    private static ApplicationContextRunner contextRunner() {
+        return new ApplicationContextRunner().withInitializer(context ->
+                context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()));
+    }
+
+    private ApplicationContextRunner virtualThreads(DataSource dataSource) {
+        return contextRunner()
+                .withUserConfiguration(VirtualThreadConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(DataSource.class, () -> dataSource)
+                .withPropertyValues("spring.threads.virtual.enabled=true",
+                        "orders.virtual-threads.max-pool-size=10",
+                        "orders.virtual-threads.max-connection-timeout=5s");
+    }
+
+    @Test
+    @DisplayName("A pool exactly at both limits is accepted")
+    void validate_AtLimits_Accepted() {
+        assertDoesNotThrow(() -> validator.validate(pool("primary", 10, 5000)));
+    }
+
+    @Test
+    @DisplayName("A pool larger than the limit is rejected, naming the pool")
+    void validate_PoolTooLarge_Rejected() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> validator.validate(pool("primary", 11, 5000)));
+
+        assertEquals("maximum-pool-size of pool primary is 11 but must not exceed 10 when virtual threads are enabled "
+                + "(see orders.virtual-threads.max-pool-size)", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("A connection timeout longer than the limit is rejected")
+    void validate_ConnectionTimeoutTooLong_Rejected() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> validator.validate(pool("primary", 10, 5001)));
+
+        assertTrue(ex.getMessage().startsWith("connection-timeout of pool primary is 5001ms"), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("With virtual threads the replica pool is validated as well as the primary")
+    void virtualThreadConfig_OversizedReplica_FailsStartup() {
+        virtualThreads(routed(pool("primary", 10, 5000), pool("replica", 20, 5000))).run(context -> {
+            assertTrue(context.getStartupFailure() != null);
+            assertTrue(context.getStartupFailure().getMessage().contains("maximum-pool-size of pool replica is 20"),
+                    context.getStartupFailure().getMessage());
+        });
+        virtualThreads(routed(pool("primary", 10, 5000), pool("replica", 10, 5000))).run(context ->
+                assertTrue(context.containsBean("virtualThreadPinningMonitor")));
+    }
+
+    @Test
+    @DisplayName("Without virtual threads pool sizes are not checked")
+    void platformThreads_NotValidated() {
+        contextRunner()
+                .withUserConfiguration(VirtualThreadConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(DataSource.class, () -> pool("primary", 100, 30000))
+                .run(context -> {
+                    assertTrue(context.getStartupFailure() == null);
+                    assertFalse(context.containsBean("hikariPoolSizingValidator"));
+                });
+    }
+}
@@ -0,0 +1,70 @@
+package com.knighteye097.order_processing_system.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private double pinned() {
+        return meterRegistry.get("jvm.threads.virtual.pinned").counter().count();
+    }
+
+    private Timer pinnedDuration() {
+        return meterRegistry.get("jvm.threads.virtual.pinned.duration").timer();
+    }
+
+    @Test
+    @DisplayName("A virtual thread that sleeps inside a synchronized block is counted and timed as pinned")
+    void pinnedVirtualThread_Recorded() throws Exception {
+        Object monitor = new Object();
+        try (VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(10))) {
+            pinningMonitor.start();
+            // The recording stream may still be starting up, so keep pinning until it has seen an event
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (pinnedDuration().count() == 0 && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(() -> {
+                    synchronized (monitor) {
+                        sleep(50);
+                    }
+                }).join();
+                Thread.sleep(100);
+            }
+        }
+
+        assertTrue(pinned() >= 1);
+        // The reported duration can fall slightly short of the sleep, so only check that one was recorded
+        assertTrue(pinnedDuration().totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Blocking outside synchronized code does not pin")
+    void unpinnedVirtualThread_NotRecorded() throws Exception {
+        try (VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(10))) {
+            pinningMonitor.start();
+            for (int i = 0; i < 5; i++) {
+                Thread.ofVirtual().start(() -> sleep(50)).join();
+            }
+            Thread.sleep(1500);
+        }
+
+        assertEquals(0, pinned());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package com.knighteye097.order_processing_system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.dto.BatchOrderResult;
 import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderPage;
 import com.knighteye097.order_processing_system.dto.OrderRequest;
 import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
 import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
 import com.knighteye097.order_processing_system.exception.GlobalExceptionHandler;
+import com.knighteye097.order_processing_system.exception.InsufficientStockException;
+import com.knighteye097.order_processing_system.idempotency.IdempotencyStore;
+import com.knighteye097.order_processing_system.intake.OrderIntakeLog;
+import com.knighteye097.order_processing_system.intake.OrderIntakeQueue;
+import com.knighteye097.order_processing_system.exception.InvalidCursorException;
 import com.knighteye097.order_processing_system.exception.OrderNotFoundException;
 import com.knighteye097.order_processing_system.service.OrderService;
+import com.knighteye097.order_processing_system.subscription.OrderStatusSubscriptions;
+import com.knighteye097.order_processing_system.wire.OrderProtobufCodec;
+import com.knighteye097.order_processing_system.wire.OrderProtobufHttpMessageConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,13 +36,28 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @WebMvcTest(OrderController.class)
 @Import({OrderControllerTest.MockOrderServiceConfig.class, GlobalExceptionHandler.class})
@@ -37,6 +69,26 @@ public class OrderControllerTest {
         public OrderService orderService() {
             return Mockito.mock(OrderService.class);
         }
+
+        @Bean
+        public IdempotencyStore idempotencyStore() {
+            return new IdempotencyStore(100, Duration.ofMinutes(1), Optional.empty());
+        }
+
+        @Bean
+        public OrderStatusSubscriptions orderStatusSubscriptions() {
+            return new OrderStatusSubscriptions(Duration.ofMinutes(1), new SimpleMeterRegistry());
+        }
+
+        /**
+         * Never started, so nothing drains it and a single accepted order fills it.
+         */
+        @Bean
+        public OrderIntakeQueue orderIntakeQueue(OrderService orderService) throws IOException {
+            return new OrderIntakeQueue(orderService,
+                    new OrderIntakeLog(Files.createTempDirectory("order-intake"), new ObjectMapper()),
+                    1, 1, 1, Duration.ofMillis(2500), Duration.ofMinutes(1), new SimpleMeterRegistry());
+        }
     }
 
     @Autowired
@@ -48,6 +100,9 @@ public class OrderControllerTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderStatusSubscriptions orderStatusSubscriptions;
+
     @Nested
     @DisplayName("Create Order Tests")
     class CreateOrderTests {
@@ -88,6 +143,395 @@ public class OrderControllerTest {
                             .content(emptyOrder))
                     .andExpect(MockMvcResultMatchers.status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("Negative: Create order with a product name longer than the catalog allows returns 400")
+        void createOrder_ProductNameTooLong_ReturnsBadRequest() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto("x".repeat(256), 1)));
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(orderRequest)))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            Mockito.verify(orderService, Mockito.never()).createOrder(orderRequest);
+        }
+
+        @Test
+        @DisplayName("Negative: Create order for an out-of-stock product returns 409")
+        void createOrder_InsufficientStock_ReturnsConflict() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto("Sold Out Item", 2)));
+            Mockito.when(orderService.createOrder(orderRequest))
+                    .thenThrow(new InsufficientStockException("Sold Out Item", 2, 0));
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(orderRequest)))
+                    .andExpect(MockMvcResultMatchers.status().isConflict())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.message")
+                            .value("Insufficient stock for Sold Out Item: requested 2, available 0."));
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Order Idempotency Tests")
+    class CreateOrderIdempotencyTests {
+
+        private OrderRequest requestFor(String productName) {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto(productName, 1)));
+            return orderRequest;
+        }
+
+        private OrderResponse responseFor(Long orderId, OrderRequest orderRequest) {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(orderId);
+            orderResponse.setStatus(OrderStatus.PENDING);
+            orderResponse.setItems(orderRequest.getItems());
+            return orderResponse;
+        }
+
+        private MockHttpServletRequestBuilder post(String key, OrderRequest orderRequest) throws Exception {
+            return MockMvcRequestBuilders.post("/api/orders")
+                    .header(OrderController.IDEMPOTENCY_KEY_HEADER, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(orderRequest));
+        }
+
+        @Test
+        @DisplayName("Positive: Retrying with the same key returns the original order without creating another")
+        void createOrder_RetryWithSameKey_ReplaysOriginal() throws Exception {
+            OrderRequest orderRequest = requestFor("Idempotent Item");
+            Mockito.when(orderService.createOrder(orderRequest)).thenReturn(responseFor(11L, orderRequest));
+
+            mockMvc.perform(post("key-retry", orderRequest))
+                    .andExpect(MockMvcResultMatchers.status().isCreated())
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist(OrderController.IDEMPOTENT_REPLAYED_HEADER));
+            mockMvc.perform(post("key-retry", orderRequest))
+                    .andExpect(MockMvcResultMatchers.status().isCreated())
+                    .andExpect(MockMvcResultMatchers.header().string(OrderController.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.orderId").value(11));
+
+            Mockito.verify(orderService, Mockito.times(1)).createOrder(orderRequest);
+        }
+
+        @Test
+        @DisplayName("Positive: Concurrent duplicates coalesce into a single creation")
+        void createOrder_ConcurrentDuplicates_CreateOnce() throws Exception {
+            OrderRequest orderRequest = requestFor("Concurrent Item");
+            CountDownLatch creating = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Mockito.when(orderService.createOrder(orderRequest)).thenAnswer(invocation -> {
+                creating.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return responseFor(12L, orderRequest);
+            });
+
+            CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return mockMvc.perform(post("key-concurrent", orderRequest)).andReturn();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            CompletableFuture<MvcResult> second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return mockMvc.perform(post("key-concurrent", orderRequest)).andReturn();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            release.countDown();
+
+            assertEquals(201, first.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+            assertEquals(201, second.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+            Mockito.verify(orderService, Mockito.times(1)).createOrder(orderRequest);
+        }
+
+        @Test
+        @DisplayName("Negative: Reusing a key for a different order returns 422")
+        void createOrder_SameKeyDifferentRequest_ReturnsUnprocessableEntity() throws Exception {
+            OrderRequest original = requestFor("Original Item");
+            Mockito.when(orderService.createOrder(original)).thenReturn(responseFor(13L, original));
+
+            mockMvc.perform(post("key-reused", original))
+                    .andExpect(MockMvcResultMatchers.status().isCreated());
+            mockMvc.perform(post("key-reused", requestFor("Other Item")))
+                    .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Order Async Tests")
+    class CreateOrderAsyncTests {
+
+        @Test
+        @DisplayName("Positive: Prefer respond-async queues the order, then a full queue returns 429 with Retry-After")
+        void acceptOrder_QueuesUntilFull() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto("Queued Item", 1)));
+            String body = objectMapper.writeValueAsString(orderRequest);
+
+            MvcResult accepted = mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .header(OrderController.PREFER_HEADER, OrderController.RESPOND_ASYNC)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(MockMvcResultMatchers.status().isAccepted())
+                    .andExpect(MockMvcResultMatchers.header().string(
+                            OrderController.PREFERENCE_APPLIED_HEADER, OrderController.RESPOND_ASYNC))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("QUEUED"))
+                    .andReturn();
+            String location = accepted.getResponse().getHeader("Location");
+
+            mockMvc.perform(MockMvcRequestBuilders.get(location))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("QUEUED"));
+            // Further preferences alongside respond-async still route the order to the queue
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .header(OrderController.PREFER_HEADER, "wait=5, Respond-Async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                    // The queue's 2.5 s retry interval is rounded up, so clients never come back too early
+                    .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"));
+            Mockito.verify(orderService, Mockito.never()).createOrder(orderRequest);
+        }
+
+        @Test
+        @DisplayName("Positive: A Prefer header without respond-async creates the order synchronously")
+        void acceptOrder_OtherPreference_CreatesSynchronously() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto("Synchronous Item", 1)));
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(7L);
+            orderResponse.setStatus(OrderStatus.PENDING);
+            orderResponse.setItems(orderRequest.getItems());
+            Mockito.when(orderService.createOrder(orderRequest)).thenReturn(orderResponse);
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .header(OrderController.PREFER_HEADER, "return=minimal; foo=respond-async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(orderRequest)))
+                    .andExpect(MockMvcResultMatchers.status().isCreated())
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist(OrderController.PREFERENCE_APPLIED_HEADER))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.orderId").value(7));
+        }
+
+        @Test
+        @DisplayName("Negative: Invalid order is rejected before it is queued")
+        void acceptOrder_InvalidOrder_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .header(OrderController.PREFER_HEADER, OrderController.RESPOND_ASYNC)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"items\": []}"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Negative: Unknown tracking ID returns 404")
+        void getIntakeStatus_UnknownTrackingId_ReturnsNotFound() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/intake/{trackingId}", "unknown"))
+                    .andExpect(MockMvcResultMatchers.status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("Protobuf Wire Format Tests")
+    class ProtobufWireFormatTests {
+
+        private OrderResponse responseFor(Long orderId) {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(orderId);
+            orderResponse.setCreatedAt(LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123456000));
+            orderResponse.setStatus(OrderStatus.SHIPPED);
+            orderResponse.setItems(List.of(new ItemDto("Protobuf Item", 3)));
+            return orderResponse;
+        }
+
+        @Test
+        @DisplayName("Positive: An order is returned as protobuf when the client accepts it")
+        void getOrderById_AcceptProtobuf_ReturnsProtobuf() throws Exception {
+            OrderResponse orderResponse = responseFor(31L);
+            Mockito.when(orderService.getOrderById(31L)).thenReturn(orderResponse);
+
+            byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/31")
+                            .accept(OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.content().contentType(OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertEquals(orderResponse, OrderProtobufCodec.decodeResponse(body));
+        }
+
+        @Test
+        @DisplayName("Positive: A page of orders is returned as a protobuf OrderList")
+        void getAllOrders_AcceptProtobuf_ReturnsOrderList() throws Exception {
+            List<OrderResponse> orders = List.of(responseFor(32L), responseFor(33L));
+            Mockito.when(orderService.getAllOrders(Optional.of(OrderStatus.DELIVERED), null, 100))
+                    .thenReturn(new OrderPage(orders, null));
+
+            byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                            .param("status", "DELIVERED")
+                            .accept(OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertEquals(orders, OrderProtobufCodec.decodeResponses(body));
+        }
+
+        @Test
+        @DisplayName("Positive: An order can be created from a protobuf request")
+        void createOrder_ProtobufBody_ReturnsCreated() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(List.of(new ItemDto("Protobuf Request Item", 2)));
+            Mockito.when(orderService.createOrder(orderRequest)).thenReturn(responseFor(34L));
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .contentType(OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                            .content(OrderProtobufCodec.encodeRequest(orderRequest)))
+                    .andExpect(MockMvcResultMatchers.status().isCreated())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.orderId").value(34));
+        }
+
+        @Test
+        @DisplayName("Negative: A malformed protobuf request returns 400")
+        void createOrder_MalformedProtobuf_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .contentType(OrderProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                            .content(new byte[]{0x0a, 0x05, 0x0a}))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("Order History Tests")
+    class OrderHistoryTests {
+
+        @Test
+        @DisplayName("Positive: The status history of an order is returned oldest first")
+        void getOrderHistory_ExistingOrder_ReturnsHistory() throws Exception {
+            LocalDateTime created = LocalDateTime.of(2025, 6, 1, 9, 0);
+            Mockito.when(orderService.getOrderHistory(41L)).thenReturn(List.of(
+                    new OrderStatusHistoryEntry(null, OrderStatus.PENDING, created),
+                    new OrderStatusHistoryEntry(OrderStatus.PENDING, OrderStatus.PROCESSING, created.plusMinutes(5))));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/41/history"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].from").doesNotExist())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].to").value("PENDING"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[1].from").value("PENDING"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[1].to").value("PROCESSING"));
+        }
+
+        @Test
+        @DisplayName("Negative: The history of an unknown order returns 404")
+        void getOrderHistory_UnknownOrder_ReturnsNotFound() throws Exception {
+            Mockito.when(orderService.getOrderHistory(42L)).thenThrow(new OrderNotFoundException(42L));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/42/history"))
+                    .andExpect(MockMvcResultMatchers.status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Positive: Time-in-status percentiles are reported for the requested window")
+        void getTimeInStatus_ExplicitWindow_ReturnsReport() throws Exception {
+            LocalDateTime since = LocalDateTime.of(2025, 6, 1, 0, 0);
+            LocalDateTime until = LocalDateTime.of(2025, 6, 2, 0, 0);
+            Mockito.when(orderService.getTimeInStatus(OrderStatus.SHIPPED, since, until))
+                    .thenReturn(new StatusDurationReport(OrderStatus.SHIPPED, since, until, 10, 500L, 900L, 990L, 1000L));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/stats/time-in-status")
+                            .param("status", "SHIPPED")
+                            .param("since", "2025-06-01T00:00:00")
+                            .param("until", "2025-06-02T00:00:00"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.orders").value(10))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.p90Millis").value(900));
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Orders Batch Tests")
+    class CreateOrdersBatchTests {
+
+        @Test
+        @DisplayName("Positive: Create batch from JSON array returns per-order results")
+        void createOrders_JsonArray_ReturnsResults() throws Exception {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setItems(Collections.singletonList(new ItemDto("Test Item", 1)));
+
+            Mockito.when(orderService.createOrders(Mockito.anyList())).thenReturn(List.of(
+                    BatchOrderResult.created(0, 10L),
+                    BatchOrderResult.rejected(1, "Order must contain at least one item")));
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(orderRequest, new OrderRequest()))))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderId").value(10))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").value("Order must contain at least one item"));
+        }
+
+        @Test
+        @DisplayName("Positive: Create batch from NDJSON reads one order per line")
+        void createOrders_Ndjson_ReadsEachLine() throws Exception {
+            Mockito.when(orderService.createOrders(Mockito.argThat(requests -> requests.size() == 2)))
+                    .thenReturn(List.of(BatchOrderResult.created(0, 1L), BatchOrderResult.created(1, 2L)));
+
+            String body = "{\"items\":[{\"productName\":\"A\",\"quantity\":1}]}\n"
+                    + "{\"items\":[{\"productName\":\"B\",\"quantity\":2}]}\n";
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(body))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[1].orderId").value(2));
+        }
+
+        @Test
+        @DisplayName("Negative: Create batch with malformed NDJSON returns 400")
+        void createOrders_MalformedNdjson_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("{\"items\": [\n"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Negative: Create batch with a mistyped NDJSON line returns 400 naming the line")
+        void createOrders_MistypedNdjson_ReturnsBadRequest() throws Exception {
+            String body = "{\"items\":[{\"productName\":\"A\",\"quantity\":1}]}\n"
+                    + "{\"items\":[{\"productName\":\"B\",\"quantity\":\"two\"}]}\n";
+
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(body))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.message").value(
+                            Matchers.startsWith("Malformed request body: Malformed order at line 2")));
+        }
+
+        @Test
+        @DisplayName("Negative: Create batch from empty NDJSON returns 400")
+        void createOrders_EmptyNdjson_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(""))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Batch must contain at least one order"));
+        }
+
+        @Test
+        @DisplayName("Negative: Create batch with empty array returns 400")
+        void createOrders_EmptyArray_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[]"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
     }
 
     @Nested
@@ -134,6 +578,46 @@ public class OrderControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Subscribe To Order Status Tests")
+    class SubscribeToOrderStatusTests {
+
+        @Test
+        @DisplayName("Positive: Subscription sends the current status, then changes until a final status")
+        void subscribeToOrderStatus_StatusChanges_StreamsEventsAndCompletes() throws Exception {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(7L);
+            orderResponse.setStatus(OrderStatus.PENDING);
+            Mockito.when(orderService.getOrderById(7L)).thenReturn(orderResponse);
+
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/7/events")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            orderStatusSubscriptions.onOrderStatusChanged(
+                    new OrderStatusChangedEvent(7L, OrderStatus.PENDING, OrderStatus.CANCELLED));
+
+            String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            int pending = body.indexOf("\"status\":\"PENDING\"");
+            int cancelled = body.indexOf("\"status\":\"CANCELLED\"");
+            assertTrue(pending >= 0 && cancelled > pending, body);
+        }
+
+        @Test
+        @DisplayName("Negative: Subscribe to non-existing order returns 404")
+        void subscribeToOrderStatus_NonExistingOrder_ReturnsNotFound() throws Exception {
+            Mockito.when(orderService.getOrderById(98L)).thenThrow(new OrderNotFoundException(98L));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/98/events")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(MockMvcResultMatchers.status().isNotFound());
+        }
+    }
+
     @Nested
     @DisplayName("Get All Orders Tests")
     class GetAllOrdersTests {
@@ -151,20 +635,21 @@ public class OrderControllerTest {
             List<ItemDto> items = Collections.singletonList(item);
             orderResponse.setItems(items);
 
-            Mockito.when(orderService.getAllOrders(Optional.empty()))
-                    .thenReturn(Collections.singletonList(orderResponse));
+            Mockito.when(orderService.getAllOrders(Optional.empty(), null, 100))
+                    .thenReturn(new OrderPage(Collections.singletonList(orderResponse), null));
 
             mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(MockMvcResultMatchers.status().isOk())
-                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderId").value(1));
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderId").value(1))
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist(OrderController.NEXT_CURSOR_HEADER));
         }
 
         @Test
         @DisplayName("Negative: Get all orders with filter returns empty list")
         void getAllOrders_NoOrders_ReturnsEmptyList() throws Exception {
-            Mockito.when(orderService.getAllOrders(Optional.of(OrderStatus.SHIPPED)))
-                    .thenReturn(Collections.emptyList());
+            Mockito.when(orderService.getAllOrders(Optional.of(OrderStatus.SHIPPED), null, 100))
+                    .thenReturn(new OrderPage(Collections.emptyList(), null));
 
             mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
                             .param("status", "SHIPPED")
@@ -172,6 +657,169 @@ public class OrderControllerTest {
                     .andExpect(MockMvcResultMatchers.status().isOk())
                     .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(0));
         }
+
+        @Test
+        @DisplayName("Positive: Get orders with cursor returns next cursor header")
+        void getAllOrders_WithCursor_ReturnsNextCursorHeader() throws Exception {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(2L);
+            orderResponse.setStatus(OrderStatus.PENDING);
+            orderResponse.setItems(Collections.emptyList());
+
+            Mockito.when(orderService.getAllOrders(Optional.empty(), "abc", 1))
+                    .thenReturn(new OrderPage(Collections.singletonList(orderResponse), "def"));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                            .param("cursor", "abc")
+                            .param("limit", "1")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderId").value(2))
+                    .andExpect(MockMvcResultMatchers.header().string(OrderController.NEXT_CURSOR_HEADER, "def"));
+        }
+
+        @Test
+        @DisplayName("Negative: Get orders with invalid cursor returns 400")
+        void getAllOrders_InvalidCursor_ReturnsBadRequest() throws Exception {
+            Mockito.when(orderService.getAllOrders(Optional.empty(), "bogus", 100))
+                    .thenThrow(new InvalidCursorException("bogus"));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                            .param("cursor", "bogus")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Negative: Get orders with limit out of range returns 400")
+        void getAllOrders_LimitOutOfRange_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                            .param("limit", "0")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Orders Tests")
+    class SearchOrdersTests {
+
+        @Test
+        @DisplayName("Positive: Search passes every filter to the service and returns the next cursor header")
+        void searchOrders_WithFilters_ReturnsPage() throws Exception {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(7L);
+            orderResponse.setStatus(OrderStatus.SHIPPED);
+            orderResponse.setItems(Collections.emptyList());
+            OrderSearchCriteria criteria = new OrderSearchCriteria(
+                    LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0),
+                    Set.of(OrderStatus.PROCESSING, OrderStatus.SHIPPED), "Widget", 3);
+
+            Mockito.when(orderService.searchOrders(criteria, "abc", 10))
+                    .thenReturn(new OrderPage(Collections.singletonList(orderResponse), "def"));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/search")
+                            .param("createdFrom", "2025-01-01T00:00:00")
+                            .param("createdTo", "2025-02-01T00:00:00")
+                            .param("status", "PROCESSING", "SHIPPED")
+                            .param("product", "Widget")
+                            .param("minItems", "3")
+                            .param("cursor", "abc")
+                            .param("limit", "10")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderId").value(7))
+                    .andExpect(MockMvcResultMatchers.header().string(OrderController.NEXT_CURSOR_HEADER, "def"));
+        }
+
+        @Test
+        @DisplayName("Positive: Search without filters matches every order")
+        void searchOrders_NoFilters_ReturnsOk() throws Exception {
+            Mockito.when(orderService.searchOrders(new OrderSearchCriteria(), null, 100))
+                    .thenReturn(new OrderPage(Collections.emptyList(), null));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/search")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(0))
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist(OrderController.NEXT_CURSOR_HEADER));
+        }
+
+        @Test
+        @DisplayName("Negative: Search with minItems below 1 returns 400")
+        void searchOrders_MinItemsOutOfRange_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/search")
+                            .param("minItems", "0")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Negative: Search with a malformed date returns 400")
+        void searchOrders_MalformedDate_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/search")
+                            .param("createdFrom", "yesterday")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Order Stats Tests")
+    class GetOrderStatsTests {
+
+        @Test
+        @DisplayName("Positive: Get order stats returns counts per status and product")
+        void getOrderStats_ReturnsOk() throws Exception {
+            OrderStats stats = new OrderStats(Map.of(OrderStatus.PENDING, 3L), LocalDate.of(2024, 1, 1),
+                    Map.of("Test Item", 5L), null);
+            Mockito.when(orderService.getOrderStats()).thenReturn(stats);
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/stats"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.ordersByStatus.PENDING").value(3))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.itemsByProduct['Test Item']").value(5));
+        }
+    }
+
+    @Nested
+    @DisplayName("Export Orders Tests")
+    class ExportOrdersTests {
+
+        @Test
+        @DisplayName("Positive: Export orders streams one JSON document per line")
+        void exportOrders_WithOrders_ReturnsNdjson() throws Exception {
+            OrderResponse first = new OrderResponse();
+            first.setOrderId(1L);
+            first.setStatus(OrderStatus.PENDING);
+            first.setItems(Collections.emptyList());
+            OrderResponse second = new OrderResponse();
+            second.setOrderId(2L);
+            second.setStatus(OrderStatus.PENDING);
+            second.setItems(Collections.emptyList());
+
+            Mockito.doAnswer(invocation -> {
+                Consumer<OrderResponse> consumer = invocation.getArgument(1);
+                consumer.accept(first);
+                consumer.accept(second);
+                return null;
+            }).when(orderService).exportOrders(Mockito.eq(Optional.of(OrderStatus.PENDING)), Mockito.any());
+
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/export")
+                            .param("status", "PENDING"))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertEquals(2, lines.length);
+            assertEquals(1L, objectMapper.readValue(lines[0], OrderResponse.class).getOrderId());
+            assertEquals(2L, objectMapper.readValue(lines[1], OrderResponse.class).getOrderId());
+        }
     }
 
     @Nested
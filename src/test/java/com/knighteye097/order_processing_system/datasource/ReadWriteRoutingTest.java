@@ -0,0 +1,137 @@
+package com.knighteye097.order_processing_system.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.migration.SchemaMigrator;
+import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the application against two separate in-memory databases standing in for a primary and a replica.
+ * The replica never receives the primary's writes, so which database served a read shows where it was routed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadWriteRoutingTest.PRIMARY_URL,
+        "orders.datasource.replica.url=" + ReadWriteRoutingTest.REPLICA_URL,
+        "orders.datasource.replica.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void migrateReplica() {
+        new SchemaMigrator(new DriverManagerDataSource(REPLICA_URL, "sa", ""), "classpath:db/migration").migrate();
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.counter(ReadWriteRoutingDataSource.ROUTING_METER, "target", target, "reason", reason).count();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions are served by the replica")
+    void readOnlyTransactionsUseReplica() {
+        long replicaOnlyId = 7_000_001L;
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+                "INSERT INTO orders_table (id, created_at, status) VALUES (?, ?, 'SHIPPED')",
+                replicaOnlyId, LocalDateTime.now());
+        double replicaReads = routed("replica", "read-only");
+
+        List<OrderResponse> shipped = orderService.getAllOrders(Optional.of(OrderStatus.SHIPPED), null, 1000).getOrders();
+
+        assertTrue(shipped.stream().anyMatch(order -> order.getOrderId() == replicaOnlyId));
+        assertEquals(replicaReads + 1, routed("replica", "read-only"));
+    }
+
+    @Test
+    @DisplayName("Writes go to the primary and the writer reads its own writes there")
+    void writerReadsOwnWritesFromPrimary() throws Exception {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(new ItemDto("Routed Lamp", 1)));
+        double primaryWrites = routed("primary", "write");
+
+        String created = mockMvc.perform(post("/api/orders")
+                        .header("X-Api-Key", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long orderId = objectMapper.readTree(created).get("orderId").asLong();
+        assertTrue(routed("primary", "write") > primaryWrites);
+
+        // Another client lists from the replica, which has not seen the order
+        assertFalse(listedPendingIds("reader").contains(orderId));
+
+        double stickyReads = routed("primary", "read-your-writes");
+        assertTrue(listedPendingIds("writer").contains(orderId));
+        assertEquals(stickyReads + 1, routed("primary", "read-your-writes"));
+    }
+
+    @Test
+    @DisplayName("An order missing from the cache is loaded from the primary, never from a lagging replica")
+    void cacheMissIsLoadedFromPrimary() {
+        long orderId = 7_000_002L;
+        LocalDateTime createdAt = LocalDateTime.now();
+        // The replica still has the order as it was before the primary committed its shipment
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+                "INSERT INTO orders_table (id, created_at, status) VALUES (?, ?, 'PENDING')", orderId, createdAt);
+        new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "")).update(
+                "INSERT INTO orders_table (id, created_at, status) VALUES (?, ?, 'SHIPPED')", orderId, createdAt);
+        double replicaReads = routed("replica", "read-only");
+
+        assertEquals(OrderStatus.SHIPPED, orderService.getOrderById(orderId).getStatus());
+        assertEquals(OrderStatus.SHIPPED, orderService.getOrderById(orderId).getStatus());
+        assertEquals(replicaReads, routed("replica", "read-only"));
+    }
+
+    private List<Long> listedPendingIds(String client) throws Exception {
+        String body = mockMvc.perform(get("/api/orders")
+                        .param("status", "PENDING")
+                        .param("limit", "1000")
+                        .header("X-Api-Key", client))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(body).forEach(order -> ids.add(order.get("orderId").asLong()));
+        return ids;
+    }
+}
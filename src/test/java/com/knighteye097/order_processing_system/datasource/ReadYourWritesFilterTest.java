@@ -0,0 +1,67 @@
+package com.knighteye097.order_processing_system.datasource;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(200);
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter("X-Api-Key", WINDOW, 100);
+
+    /**
+     * Sends a request from the client through the filter and returns whether it was pinned to the primary.
+     */
+    private boolean send(String method, String client, Duration duration) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/orders");
+        request.addHeader("X-Api-Key", client);
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                pinned.set(ReadYourWritesContext.isPinnedToPrimary());
+                sleep(duration);
+            }
+        }));
+        assertFalse(ReadYourWritesContext.isPinnedToPrimary());
+        return pinned.get();
+    }
+
+    @Test
+    @DisplayName("A write that outlasts the window still pins the client's next read")
+    void longWrite_NextReadPinned() throws Exception {
+        assertTrue(send("POST", "writer", WINDOW.multipliedBy(2)));
+
+        assertTrue(send("GET", "writer", Duration.ZERO));
+        assertFalse(send("GET", "reader", Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Reads are released to the replica once the window after the write has passed")
+    void windowPassed_ReadNotPinned() throws Exception {
+        send("POST", "writer", Duration.ZERO);
+        sleep(WINDOW.multipliedBy(2));
+
+        assertFalse(send("GET", "writer", Duration.ZERO));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.knighteye097.order_processing_system.idempotency;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.exception.IdempotencyKeyConflictException;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deduplicates requests in memory and through the idempotency_keys table. Uses its own database because
+ * every transaction here commits.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyStoreTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyKeyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        repository = new IdempotencyKeyRepository(dataSource, transactionTemplate, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    private static IdempotencyStore inMemoryStore() {
+        return new IdempotencyStore(100, Duration.ofMinutes(1), Optional.empty());
+    }
+
+    private IdempotencyStore persistentStore() {
+        return new IdempotencyStore(100, Duration.ofMinutes(1), Optional.of(repository));
+    }
+
+    private static OrderRequest request(String productName, int quantity) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(new ItemDto(productName, quantity)));
+        return request;
+    }
+
+    private static Supplier<OrderResponse> creating(long orderId, AtomicInteger runs) {
+        return () -> {
+            runs.incrementAndGet();
+            OrderResponse response = new OrderResponse();
+            response.setOrderId(orderId);
+            response.setStatus(OrderStatus.PENDING);
+            response.setItems(List.of());
+            response.setCreatedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+            return response;
+        };
+    }
+
+    @Test
+    @DisplayName("Requests whose hash codes collide are still told apart")
+    void execute_HashCodeCollision_Conflicts() {
+        OrderRequest first = request("Aa", 1);
+        OrderRequest second = request("BB", 1);
+        assertEquals(first.hashCode(), second.hashCode());
+        IdempotencyStore store = inMemoryStore();
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("key-1", first, creating(1L, runs));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("key-1", second, creating(2L, runs)));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("A retry after a restart is answered from the table, and a different request with the key is rejected")
+    void execute_Persistent_ReplaysAcrossRestart() {
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyStore.Result original = persistentStore().execute("key-1", request("Laptop", 2), creating(1L, runs));
+
+        IdempotencyStore restarted = persistentStore();
+        IdempotencyStore.Result retry = restarted.execute("key-1", request("Laptop", 2), creating(2L, runs));
+
+        assertFalse(original.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(original.response(), retry.response());
+        assertEquals(1, runs.get());
+        assertEquals(32, jdbcTemplate.queryForObject("SELECT request_hash FROM idempotency_keys", byte[].class).length);
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> persistentStore().execute("key-1", request("Laptop", 3), creating(3L, runs)));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("A duplicate arriving while the first request runs waits for its response instead of running")
+    void execute_ConcurrentDuplicate_WaitsForFirst() throws Exception {
+        IdempotencyStore store = inMemoryStore();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<OrderResponse> create = creating(1L, runs);
+
+        CompletableFuture<IdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("key-1", request("Laptop", 2), () -> {
+                    running.countDown();
+                    await(release);
+                    return create.get();
+                }));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        CompletableFuture<IdempotencyStore.Result> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute("key-1", request("Laptop", 2), creating(2L, runs)));
+        release.countDown();
+
+        assertFalse(first.get(10, TimeUnit.SECONDS).replayed());
+        assertTrue(duplicate.get(10, TimeUnit.SECONDS).replayed());
+        assertEquals(1L, duplicate.get().response().getOrderId());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("When two instances run the same key at once, the one that records it second answers with the winner's response")
+    void execute_ConcurrentInstances_LoserReplaysWinner() throws Exception {
+        IdempotencyStore instanceA = persistentStore();
+        IdempotencyStore instanceB = persistentStore();
+        AtomicInteger runs = new AtomicInteger();
+        // Neither records the key before both have started, so both miss it in the table
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Supplier<OrderResponse> createA = creating(1L, runs);
+        Supplier<OrderResponse> createB = creating(2L, runs);
+
+        CompletableFuture<IdempotencyStore.Result> a = CompletableFuture.supplyAsync(() ->
+                instanceA.execute("key-1", request("Laptop", 2), () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    return createA.get();
+                }));
+        CompletableFuture<IdempotencyStore.Result> b = CompletableFuture.supplyAsync(() ->
+                instanceB.execute("key-1", request("Laptop", 2), () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    return createB.get();
+                }));
+
+        IdempotencyStore.Result resultA = a.get(30, TimeUnit.SECONDS);
+        IdempotencyStore.Result resultB = b.get(30, TimeUnit.SECONDS);
+        assertEquals(2, runs.get());
+        assertNotEquals(resultA.replayed(), resultB.replayed());
+        assertEquals(resultA.response(), resultB.response());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys", Integer.class));
+    }
+
+    @Test
+    @DisplayName("When another instance records the key first for a different request, the loser is rejected")
+    void execute_ConcurrentInstancesDifferentRequests_LoserConflicts() throws Exception {
+        IdempotencyStore instanceA = persistentStore();
+        IdempotencyStore instanceB = persistentStore();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Supplier<OrderResponse> createA = creating(1L, runs);
+        Supplier<OrderResponse> createB = creating(2L, runs);
+
+        CompletableFuture<IdempotencyStore.Result> a = CompletableFuture.supplyAsync(() ->
+                instanceA.execute("key-1", request("Laptop", 2), () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    return createA.get();
+                }));
+        CompletableFuture<IdempotencyStore.Result> b = CompletableFuture.supplyAsync(() ->
+                instanceB.execute("key-1", request("Laptop", 3), () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    return createB.get();
+                }));
+
+        List<Throwable> failures = new ArrayList<>();
+        for (CompletableFuture<IdempotencyStore.Result> result : List.of(a, b)) {
+            try {
+                assertFalse(result.get(30, TimeUnit.SECONDS).replayed());
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        assertEquals(1, failures.size());
+        assertInstanceOf(IdempotencyKeyConflictException.class, failures.get(0));
+    }
+
+    @Test
+    @DisplayName("A failure while looking up the winning instance's response does not leave later retries waiting")
+    void execute_WinnerLookupFails_RetryRunsAgain() throws Exception {
+        // Reports a duplicate key although nothing was recorded, so there is no winner to replay
+        IdempotencyKeyRepository racing = new IdempotencyKeyRepository(dataSource, transactionTemplate,
+                Jackson2ObjectMapperBuilder.json().build()) {
+            @Override
+            public OrderResponse executeAndRecord(String key, byte[] requestHash, Supplier<OrderResponse> action) {
+                throw new DuplicateKeyException("recorded elsewhere");
+            }
+        };
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), Optional.of(racing));
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(DuplicateKeyException.class, () -> store.execute("key-1", request("Laptop", 2), creating(1L, runs)));
+
+        CompletableFuture<IdempotencyStore.Result> retry = CompletableFuture.supplyAsync(() ->
+                store.execute("key-1", request("Laptop", 2), creating(2L, runs)));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> retry.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(DuplicateKeyException.class, failure.getCause());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
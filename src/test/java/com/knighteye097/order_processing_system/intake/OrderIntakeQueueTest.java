@@ -0,0 +1,195 @@
+package com.knighteye097.order_processing_system.intake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderIntakeStatus;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class OrderIntakeQueueTest {
+
+    @TempDir
+    Path logDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OrderIntakeQueue queue(OrderService orderService) throws Exception {
+        return new OrderIntakeQueue(orderService, new OrderIntakeLog(logDir, objectMapper),
+                10, 10, 1, Duration.ofSeconds(1), Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    private static OrderRequest requestFor(String productName) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(new ItemDto(productName, 1)));
+        return request;
+    }
+
+    /**
+     * Persists every queued order it is given, once per tracking id. Orders for product "poison" are refused
+     * by the database and orders for product "broken" fail with an error that no retry would cure.
+     */
+    private static OrderService persistingService(Set<String> persisted) {
+        OrderService orderService = Mockito.mock(OrderService.class);
+        AtomicLong ids = new AtomicLong();
+        Mockito.when(orderService.createQueuedOrders(Mockito.anyMap())).thenAnswer(invocation -> {
+            Map<String, OrderRequest> requests = invocation.getArgument(0);
+            if (requests.values().stream().anyMatch(r -> r.getItems().get(0).getProductName().equals("poison"))) {
+                throw new DataIntegrityViolationException("refused");
+            }
+            if (requests.values().stream().anyMatch(r -> r.getItems().get(0).getProductName().equals("broken"))) {
+                throw new IllegalArgumentException("cannot be mapped");
+            }
+            Map<String, Long> orderIds = new HashMap<>();
+            requests.keySet().forEach(trackingId -> {
+                persisted.add(trackingId);
+                orderIds.put(trackingId, ids.incrementAndGet());
+            });
+            return orderIds;
+        });
+        return orderService;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 10 seconds");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static OrderIntakeStatus.State stateOf(OrderIntakeQueue queue, String trackingId) {
+        return queue.status(trackingId).map(OrderIntakeStatus::getState).orElse(null);
+    }
+
+    @Test
+    @DisplayName("Orders accepted while the database was unavailable are replayed after a restart")
+    void acceptedOrdersAreReplayedAfterRestart() throws Exception {
+        OrderService unavailable = Mockito.mock(OrderService.class);
+        Mockito.when(unavailable.createQueuedOrders(Mockito.anyMap())).thenThrow(new QueryTimeoutException("down"));
+        OrderIntakeQueue first = queue(unavailable);
+        first.start();
+        String a = first.submit(requestFor("Lamp")).getTrackingId();
+        String b = first.submit(requestFor("Desk")).getTrackingId();
+        first.close();
+
+        Set<String> persisted = ConcurrentHashMap.newKeySet();
+        OrderIntakeQueue second = queue(persistingService(persisted));
+        second.start();
+        try {
+            await(() -> persisted.containsAll(Set.of(a, b)));
+            // The mock records an order as persisted before the queue records its outcome, so wait for both
+            await(() -> stateOf(second, a) == OrderIntakeStatus.State.CREATED);
+            await(() -> stateOf(second, b) == OrderIntakeStatus.State.CREATED);
+        } finally {
+            second.close();
+        }
+        assertEquals(0, Files.size(logDir.resolve(OrderIntakeLog.FILE_NAME)));
+    }
+
+    @Test
+    @DisplayName("Persisted orders are not replayed")
+    void persistedOrdersAreNotReplayed() throws Exception {
+        Set<String> persisted = ConcurrentHashMap.newKeySet();
+        OrderIntakeQueue first = queue(persistingService(persisted));
+        first.start();
+        String trackingId = first.submit(requestFor("Chair")).getTrackingId();
+        await(() -> stateOf(first, trackingId) == OrderIntakeStatus.State.CREATED);
+        first.close();
+
+        OrderService restarted = Mockito.mock(OrderService.class);
+        OrderIntakeQueue second = queue(restarted);
+        second.start();
+        second.close();
+        Mockito.verify(restarted, Mockito.never()).createQueuedOrders(Mockito.anyMap());
+    }
+
+    @Test
+    @DisplayName("An order the database refuses is rejected without holding back the others")
+    void refusedOrderIsRejectedAlone() throws Exception {
+        Set<String> persisted = ConcurrentHashMap.newKeySet();
+        OrderIntakeQueue queue = queue(persistingService(persisted));
+        String poison = queue.submit(requestFor("poison")).getTrackingId();
+        String good = queue.submit(requestFor("Shelf")).getTrackingId();
+        queue.start();
+        try {
+            await(() -> stateOf(queue, poison) == OrderIntakeStatus.State.REJECTED);
+            await(() -> stateOf(queue, good) == OrderIntakeStatus.State.CREATED);
+            assertTrue(persisted.contains(good));
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    @DisplayName("An order that can never be persisted is rejected instead of retried, and is not replayed")
+    void unpersistableOrderIsRejectedAndNotReplayed() throws Exception {
+        Set<String> persisted = ConcurrentHashMap.newKeySet();
+        OrderIntakeQueue first = queue(persistingService(persisted));
+        String broken = first.submit(requestFor("broken")).getTrackingId();
+        String good = first.submit(requestFor("Stool")).getTrackingId();
+        first.start();
+        try {
+            await(() -> stateOf(first, broken) == OrderIntakeStatus.State.REJECTED);
+            await(() -> stateOf(first, good) == OrderIntakeStatus.State.CREATED);
+        } finally {
+            first.close();
+        }
+
+        OrderService restarted = Mockito.mock(OrderService.class);
+        OrderIntakeQueue second = queue(restarted);
+        second.start();
+        second.close();
+        Mockito.verify(restarted, Mockito.never()).createQueuedOrders(Mockito.anyMap());
+    }
+
+    @Test
+    @DisplayName("A queued order stays known however long it waits, while its outcome expires after the retention")
+    void queuedStatusOutlivesRetention() throws Exception {
+        OrderService unavailable = Mockito.mock(OrderService.class);
+        Mockito.when(unavailable.createQueuedOrders(Mockito.anyMap())).thenThrow(new QueryTimeoutException("down"));
+        Duration retention = Duration.ofMillis(50);
+        OrderIntakeQueue waiting = new OrderIntakeQueue(unavailable, new OrderIntakeLog(logDir, objectMapper),
+                10, 10, 1, Duration.ofSeconds(1), retention, new SimpleMeterRegistry());
+        waiting.start();
+        String queued = waiting.submit(requestFor("Patient")).getTrackingId();
+        Thread.sleep(retention.multipliedBy(4).toMillis());
+        assertEquals(OrderIntakeStatus.State.QUEUED, stateOf(waiting, queued));
+        waiting.close();
+
+        OrderService recovered = persistingService(ConcurrentHashMap.newKeySet());
+        OrderIntakeQueue replaying = new OrderIntakeQueue(recovered, new OrderIntakeLog(logDir, objectMapper),
+                10, 10, 1, Duration.ofSeconds(1), retention, new SimpleMeterRegistry());
+        replaying.start();
+        try {
+            await(() -> stateOf(replaying, queued) == OrderIntakeStatus.State.CREATED);
+            // Once the outcome has expired the tracking id is looked up in the database, which the mock does not know
+            await(() -> stateOf(replaying, queued) == null);
+        } finally {
+            replaying.close();
+        }
+    }
+}
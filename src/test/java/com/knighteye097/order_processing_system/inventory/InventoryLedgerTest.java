@@ -0,0 +1,273 @@
+package com.knighteye097.order_processing_system.inventory;
+
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.entity.Order;
+import com.knighteye097.order_processing_system.entity.OrderItem;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.exception.InsufficientStockException;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.OrderRepository;
+import com.knighteye097.order_processing_system.repository.ProductQuantity;
+import com.knighteye097.order_processing_system.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Exercises the ledger against committed stock levels, with separate ledgers standing in for separate
+ * application instances. Uses its own database because every transaction here commits.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:inventory;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SchemaMigrationConfig.class, InventoryRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryLedgerTest {
+
+    private static final int STOCK = 1000;
+    private static final Duration ABANDONED_AFTER = Duration.ofMinutes(1);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductCatalog productCatalog;
+    private Integer lamp;
+    private Integer desk;
+    private Integer untracked;
+
+    @BeforeEach
+    void seedStock() {
+        jdbcTemplate.update("DELETE FROM inventory");
+        productCatalog = new ProductCatalog(productRepository, transactionManager, new SimpleMeterRegistry());
+        var ids = productCatalog.resolveIds(List.of("Lamp", "Desk", "Poster"));
+        lamp = ids.get("Lamp");
+        desk = ids.get("Desk");
+        untracked = ids.get("Poster");
+        jdbcTemplate.update("INSERT INTO inventory (product_id, available) VALUES (?, ?), (?, ?)", lamp, STOCK, desk, 1);
+    }
+
+    private InventoryLedger ledger() {
+        InventoryLedger ledger = new InventoryLedger(inventoryRepository, productCatalog, transactionTemplate,
+                new SimpleMeterRegistry(), ABANDONED_AFTER);
+        ledger.afterSingletonsInstantiated();
+        return ledger;
+    }
+
+    private long persisted(Integer productId) {
+        return jdbcTemplate.queryForObject("SELECT available FROM inventory WHERE product_id = ?", Long.class, productId);
+    }
+
+    private static List<OrderItem> items(Integer productId, int quantity) {
+        return List.of(new OrderItem(productId, quantity));
+    }
+
+    /**
+     * Places an order for the product through the ledger, as the order service does, and returns its id.
+     */
+    private Long placeOrder(InventoryLedger ledger, Integer productId, int quantity) {
+        return transactionTemplate.execute(status -> {
+            OrderItem item = new OrderItem(productId, quantity);
+            Order order = new Order();
+            order.setStatus(OrderStatus.PENDING);
+            order.setItems(List.of(item));
+            item.setOrder(order);
+            ledger.reserve(order.getItems());
+            return orderRepository.save(order).getId();
+        });
+    }
+
+    private void age(Long orderId) {
+        jdbcTemplate.update("UPDATE orders_table SET created_at = ? WHERE id = ?",
+                LocalDateTime.now().minus(ABANDONED_AFTER).minusSeconds(1), orderId);
+    }
+
+    private List<Boolean> stockPending(Long orderId) {
+        return jdbcTemplate.queryForList("SELECT stock_pending FROM order_items WHERE order_id = ?", Boolean.class, orderId);
+    }
+
+    @Test
+    @DisplayName("Concurrent checkouts of one product never reserve more than its stock")
+    void reserve_Concurrently_NeverOversells() throws Exception {
+        InventoryLedger ledger = ledger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Integer>> runs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                runs.add(CompletableFuture.supplyAsync(() -> {
+                    int reserved = 0;
+                    while (true) {
+                        try {
+                            ledger.reserve(items(lamp, 3));
+                            reserved += 3;
+                        } catch (InsufficientStockException ex) {
+                            return reserved;
+                        }
+                    }
+                }, executor));
+            }
+            int total = 0;
+            for (CompletableFuture<Integer> run : runs) {
+                total += run.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(STOCK - STOCK % 3, total);
+        } finally {
+            executor.shutdown();
+        }
+
+        ledger.sync();
+
+        assertEquals(STOCK % 3, persisted(lamp));
+    }
+
+    @Test
+    @DisplayName("An order is reserved all or nothing, and unmanaged products are unlimited")
+    void reserve_OneProductShort_ReservesNothing() {
+        InventoryLedger ledger = ledger();
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class, () ->
+                ledger.reserve(List.of(new OrderItem(lamp, 5), new OrderItem(untracked, 1_000_000), new OrderItem(desk, 2))));
+
+        assertEquals("Insufficient stock for Desk: requested 2, available 1.", ex.getMessage());
+        assertEquals(OptionalLong.of(STOCK), ledger.available(lamp));
+        assertEquals(OptionalLong.empty(), ledger.available(untracked));
+    }
+
+    @Test
+    @DisplayName("A reservation made in a transaction that rolls back is returned to stock")
+    void reserve_TransactionRolledBack_ReturnsStock() {
+        InventoryLedger ledger = ledger();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.reserve(items(lamp, 10));
+            assertEquals(OptionalLong.of(STOCK - 10), ledger.available(lamp));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(OptionalLong.of(STOCK), ledger.available(lamp));
+    }
+
+    @Test
+    @DisplayName("Released stock comes back only once the cancelling transaction commits")
+    void release_AfterCommit_ReturnsStock() {
+        InventoryLedger ledger = ledger();
+        ledger.reserve(items(lamp, 10));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.release(List.of(new ProductQuantity(lamp, 10)));
+            assertEquals(OptionalLong.of(STOCK - 10), ledger.available(lamp));
+        });
+
+        assertEquals(OptionalLong.of(STOCK), ledger.available(lamp));
+    }
+
+    @Test
+    @DisplayName("Instances write back only their own changes and pick up each other's and restocking")
+    void sync_SeveralInstances_ConvergeOnDatabase() {
+        InventoryLedger first = ledger();
+        InventoryLedger second = ledger();
+
+        first.reserve(items(lamp, 30));
+        second.reserve(items(lamp, 20));
+        first.sync();
+        second.sync();
+        jdbcTemplate.update("UPDATE inventory SET available = available + 100 WHERE product_id = ?", lamp);
+        first.sync();
+        second.sync();
+
+        assertEquals(STOCK - 50 + 100, persisted(lamp));
+        assertEquals(OptionalLong.of(STOCK - 50 + 100), first.available(lamp));
+        assertEquals(OptionalLong.of(STOCK - 50 + 100), second.available(lamp));
+    }
+
+    @Test
+    @DisplayName("Reservations of an instance that stopped before writing them back are applied once abandoned")
+    void sync_InstanceStoppedBeforeWriteBack_AppliesAbandonedReservations() {
+        InventoryLedger stopped = ledger();
+        Long recent = placeOrder(stopped, lamp, 10);
+        Long old = placeOrder(stopped, lamp, 30);
+        age(old);
+
+        InventoryLedger restarted = ledger();
+
+        assertEquals(STOCK - 30, persisted(lamp));
+        assertEquals(OptionalLong.of(STOCK - 30), restarted.available(lamp));
+        assertEquals(List.of(false), stockPending(old));
+        assertEquals(List.of(true), stockPending(recent));
+
+        age(recent);
+        restarted.sync();
+
+        assertEquals(STOCK - 40, persisted(lamp));
+        assertEquals(OptionalLong.of(STOCK - 40), restarted.available(lamp));
+    }
+
+    @Test
+    @DisplayName("A reservation is written back once, even when another instance took it for abandoned first")
+    void sync_ReservationTakenForAbandoned_NotWrittenTwice() {
+        InventoryLedger slow = ledger();
+        Long kept = placeOrder(slow, lamp, 10);
+        Long taken = placeOrder(slow, lamp, 20);
+        age(taken);
+
+        InventoryLedger other = ledger();
+        slow.sync();
+        other.sync();
+
+        assertEquals(STOCK - 30, persisted(lamp));
+        assertEquals(OptionalLong.of(STOCK - 30), slow.available(lamp));
+        assertEquals(OptionalLong.of(STOCK - 30), other.available(lamp));
+        assertEquals(List.of(false), stockPending(kept));
+        assertEquals(List.of(false), stockPending(taken));
+    }
+
+    @Test
+    @DisplayName("Cancelling returns only the stock the order took, not that of products tracked after it was placed")
+    void sumReservedQuantity_ProductTrackedAfterOrder_NotReturned() {
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id = ?", desk);
+        InventoryLedger untracking = ledger();
+        Long beforeTracking = placeOrder(untracking, desk, 1);
+        Long tracked = placeOrder(untracking, lamp, 4);
+
+        assertEquals(List.of(), orderRepository.sumReservedQuantityByProductForOrder(beforeTracking));
+        assertEquals(List.of(new ProductQuantity(lamp, 4)), orderRepository.sumReservedQuantityByProductForOrder(tracked));
+    }
+}
@@ -0,0 +1,174 @@
+package com.knighteye097.order_processing_system.metrics;
+
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.config.MetricsConfig;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.inventory.InventoryLedger;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.outbox.OutboxWriter;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import com.knighteye097.order_processing_system.repository.OrderExportRepository;
+import com.knighteye097.order_processing_system.repository.OrderSearchRepository;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.service.OrderService;
+import com.knighteye097.order_processing_system.service.impl.BulkStatusTransitionEngine;
+import com.knighteye097.order_processing_system.service.impl.OrderArchiver;
+import com.knighteye097.order_processing_system.service.impl.OrderServiceImpl;
+import com.knighteye097.order_processing_system.stats.OrderStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the meters registered by {@link MetricsConfig}, {@link StatementCountingDataSource} and {@link OrderMetrics}
+ * against the work the service actually did, with the outbox writer taking part as in the application. Uses its own database because the business counters only move once a
+ * transaction commits.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:order-metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, AopAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({MetricsConfig.class, OrderServiceImpl.class, OrderSearchRepository.class, OrderExportRepository.class,
+        OrderArchiveRepository.class, OrderStatusHistoryRepository.class, BulkStatusTransitionEngine.class,
+        OrderArchiver.class, OrderStatistics.class, OrderResponseCache.class, ProductCatalog.class, InventoryLedger.class,
+        InventoryRepository.class, OutboxWriter.class, OrderMetrics.class, SimpleMeterRegistry.class, SchemaMigrationConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderMetricsTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static OrderRequest request(int itemCount) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(IntStream.range(0, itemCount)
+                .mapToObj(i -> new ItemDto("Metrics Product " + i, 1))
+                .toList());
+        return request;
+    }
+
+    private double counter(String name, String... tags) {
+        return meterRegistry.find(name).tags(tags).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private long serviceCalls(String method) {
+        return meterRegistry.find("orders.service").tag("method", method).timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
+
+    @Test
+    @DisplayName("The application DataSource is wrapped so that its statements are counted")
+    void dataSource_WrappedAndCountsStatements() {
+        assertInstanceOf(StatementCountingDataSource.class, dataSource);
+
+        JdbcStatementCounter.start();
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        jdbcTemplate.queryForObject("SELECT 2", Integer.class);
+        jdbcTemplate.batchUpdate("UPDATE orders_table SET status = status WHERE id = ?", List.of(new Object[]{1L}, new Object[]{2L}));
+
+        assertEquals(3, JdbcStatementCounter.stop());
+        assertEquals(0, JdbcStatementCounter.stop());
+    }
+
+    @Test
+    @DisplayName("Creating, moving and failing to cancel orders moves the business counters and the service timer")
+    void orderLifecycle_CountedAndTimed() {
+        double placed = counter("orders.placed");
+        double transitions = counter("orders.status.transitions", "from", "PENDING", "to", "PROCESSING");
+        double rejected = counter("orders.cancel.rejected");
+        long creates = serviceCalls("createOrder");
+
+        Long first = orderService.createOrder(request(2)).getOrderId();
+        orderService.createOrder(request(1));
+        orderService.updateOrderStatus(first, OrderStatus.PROCESSING);
+        assertThrows(IllegalStateException.class, () -> orderService.cancelOrder(first));
+
+        assertEquals(placed + 2, counter("orders.placed"));
+        assertEquals(transitions + 1, counter("orders.status.transitions", "from", "PENDING", "to", "PROCESSING"));
+        assertEquals(rejected + 1, counter("orders.cancel.rejected"));
+        assertEquals(creates + 2, serviceCalls("createOrder"));
+        assertTrue(meterRegistry.get("orders.service").tag("method", "createOrder").timer().totalTime(
+                TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("A committed transition costs its conditional update and one batch writing its outbox event and history")
+    void committedTransition_TwoStatements() {
+        // Also allocates the first block of outbox ids, which is not part of what a transition costs
+        Long orderId = orderService.createOrder(request(1)).getOrderId();
+
+        JdbcStatementCounter.start();
+        orderService.updateOrderStatus(orderId, OrderStatus.PROCESSING);
+
+        assertEquals(2, JdbcStatementCounter.stop());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM order_status_history WHERE order_id = ?", Integer.class, orderId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM order_outbox WHERE order_id = ?", Integer.class, orderId));
+    }
+
+    @Test
+    @DisplayName("The request filter records the statements each request issued under its URI pattern")
+    void statementCountFilter_RecordsStatementsPerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/orders/{id}");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                jdbcTemplate.queryForObject("SELECT 2", Integer.class);
+            }
+        });
+
+        new JdbcStatementCountFilter(meterRegistry).doFilter(request, new MockHttpServletResponse(), chain);
+
+        DistributionSummary summary = meterRegistry.get("http.server.requests.jdbc.statements")
+                .tags("method", "GET", "uri", "/api/orders/{id}").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+}
@@ -0,0 +1,189 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderStatusHistoryEntry;
+import com.knighteye097.order_processing_system.dto.StatusDurationReport;
+import com.knighteye097.order_processing_system.config.MetricsConfig;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.entity.OutboxEvent;
+import com.knighteye097.order_processing_system.entity.OutboxEventType;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.metrics.JdbcStatementCounter;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.repository.OutboxEntry;
+import com.knighteye097.order_processing_system.repository.StatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Records status history with the outbox event of each change and reports on it. Uses its own database because
+ * every transaction here commits.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:status-history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({SchemaMigrationConfig.class, OrderStatusHistoryRepository.class, OutboxWriter.class, MetricsConfig.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusHistoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 9, 0);
+    // Clear of the block the writer's id generator hands out
+    private static final AtomicLong OUTBOX_IDS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM order_status_history");
+        jdbcTemplate.update("DELETE FROM order_outbox");
+    }
+
+    private static OutboxEntry entry(StatusChange change) {
+        OutboxEvent event = new OutboxEvent(change.orderId(), change.to().depth(),
+                change.from() == null ? OutboxEventType.ORDER_CREATED : OutboxEventType.ORDER_STATUS_CHANGED, "{}");
+        event.setId(OUTBOX_IDS.incrementAndGet());
+        event.setCreatedAt(change.changedAt());
+        return new OutboxEntry(event, change);
+    }
+
+    private static List<OutboxEntry> entries(StatusChange... changes) {
+        return Arrays.stream(changes).map(OrderStatusHistoryTest::entry).toList();
+    }
+
+    private void publishCreated(Long orderId, LocalDateTime at) {
+        OrderResponse order = new OrderResponse();
+        order.setOrderId(orderId);
+        order.setStatus(OrderStatus.PENDING);
+        order.setItems(List.of());
+        order.setCreatedAt(at);
+        eventPublisher.publishEvent(new OrderCreatedEvent(order));
+    }
+
+    private static List<OrderStatus> targetsOf(List<OrderStatusHistoryEntry> entries) {
+        return entries.stream().map(OrderStatusHistoryEntry::getTo).toList();
+    }
+
+    @Test
+    @DisplayName("The outbox event and history row of every change in a transaction cost a single statement")
+    void writer_OneStatementPerTransaction() {
+        // Allocates the first block of outbox ids, which is not part of what a transition costs
+        transactionTemplate.executeWithoutResult(status -> publishCreated(1L, T0));
+
+        JdbcStatementCounter.start();
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(1L, OrderStatus.PENDING, OrderStatus.PROCESSING));
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED));
+        });
+
+        assertEquals(1, JdbcStatementCounter.stop());
+        assertEquals(List.of(OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.SHIPPED),
+                targetsOf(orderStatusHistoryRepository.findByOrderId(1L)));
+        assertEquals(List.of("ORDER_CREATED", "ORDER_STATUS_CHANGED", "ORDER_STATUS_CHANGED"), jdbcTemplate.queryForList(
+                "SELECT event_type FROM order_outbox WHERE order_id = 1 ORDER BY order_sequence", String.class));
+    }
+
+    @Test
+    @DisplayName("Changes are recorded by the transaction that made them, without the outbox relay, and not at all on rollback")
+    void writer_RecordsCommittedChanges() {
+        transactionTemplate.executeWithoutResult(status -> {
+            publishCreated(1L, T0);
+            publishCreated(2L, T0);
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(1L, OrderStatus.PENDING, OrderStatus.PROCESSING)));
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED));
+            status.setRollbackOnly();
+        });
+
+        List<OrderStatusHistoryEntry> history = orderStatusHistoryRepository.findByOrderId(1L);
+        assertEquals(List.of(OrderStatus.PENDING, OrderStatus.PROCESSING), targetsOf(history));
+        assertEquals(new OrderStatusHistoryEntry(null, OrderStatus.PENDING, T0), history.get(0));
+        assertEquals(OrderStatus.PENDING, history.get(1).getFrom());
+        assertEquals(List.of(OrderStatus.PENDING), targetsOf(orderStatusHistoryRepository.findByOrderId(2L)));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM order_outbox", Integer.class));
+    }
+
+    @Test
+    @DisplayName("A change dated before the one it follows keeps its place and never yields a negative duration")
+    void append_SkewedClock_NeverBeforePreviousChange() {
+        transactionTemplate.executeWithoutResult(status -> orderStatusHistoryRepository.append(entries(
+                new StatusChange(1L, null, OrderStatus.PENDING, T0),
+                new StatusChange(1L, OrderStatus.PENDING, OrderStatus.PROCESSING, T0.plusMinutes(5)),
+                // Made on an instance whose clock is behind
+                new StatusChange(1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED, T0.plusMinutes(2)))));
+
+        assertEquals(List.of(
+                new OrderStatusHistoryEntry(null, OrderStatus.PENDING, T0),
+                new OrderStatusHistoryEntry(OrderStatus.PENDING, OrderStatus.PROCESSING, T0.plusMinutes(5)),
+                new OrderStatusHistoryEntry(OrderStatus.PROCESSING, OrderStatus.SHIPPED, T0.plusMinutes(5))),
+                orderStatusHistoryRepository.findByOrderId(1L));
+        StatusDurationReport processing = orderStatusHistoryRepository.reportTimeInStatus(
+                OrderStatus.PROCESSING, T0, T0.plusDays(1));
+        assertEquals(1, processing.getOrders());
+        assertEquals(0L, processing.getMaxMillis());
+    }
+
+    @Test
+    @DisplayName("Time-in-status percentiles cover only the orders that left the status within the window")
+    void reportTimeInStatus_NearestRankPercentiles() {
+        List<OutboxEntry> changes = new ArrayList<>();
+        for (long orderId = 1; orderId <= 200; orderId++) {
+            changes.add(entry(new StatusChange(orderId, null, OrderStatus.PENDING, T0)));
+            // Orders 1 to 100 leave PENDING after 1 to 100 seconds; the others only on the next day
+            long seconds = orderId <= 100 ? orderId : 86_400 + orderId;
+            changes.add(entry(new StatusChange(orderId, OrderStatus.PENDING, OrderStatus.PROCESSING, T0.plusSeconds(seconds))));
+        }
+        transactionTemplate.executeWithoutResult(status -> orderStatusHistoryRepository.append(changes));
+
+        StatusDurationReport report = orderStatusHistoryRepository.reportTimeInStatus(
+                OrderStatus.PENDING, T0, T0.plusHours(1));
+
+        assertEquals(100, report.getOrders());
+        assertEquals(50_000L, report.getP50Millis());
+        assertEquals(90_000L, report.getP90Millis());
+        assertEquals(99_000L, report.getP99Millis());
+        assertEquals(100_000L, report.getMaxMillis());
+
+        StatusDurationReport empty = orderStatusHistoryRepository.reportTimeInStatus(
+                OrderStatus.SHIPPED, T0, T0.plusHours(1));
+        assertEquals(0, empty.getOrders());
+        assertNull(empty.getP50Millis());
+    }
+}
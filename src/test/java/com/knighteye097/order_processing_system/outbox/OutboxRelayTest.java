@@ -0,0 +1,197 @@
+package com.knighteye097.order_processing_system.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.entity.OutboxEventType;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.OutboxEventRepository;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Relays outbox events to recording sinks. Uses its own database because every transaction here commits,
+ * and a dialect that renders SKIP LOCKED, which H2 supports but Hibernate's H2 dialect never asks for.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-relay;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=com.knighteye097.order_processing_system.outbox.OutboxRelayTest$SkipLockedH2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    public static class SkipLockedH2Dialect extends H2Dialect {
+
+        @Override
+        public boolean supportsSkipLocked() {
+            return true;
+        }
+
+        @Override
+        public String getForUpdateSkipLockedString() {
+            return " for update skip locked";
+        }
+
+        @Override
+        public String getForUpdateSkipLockedString(String aliases) {
+            return getForUpdateSkipLockedString();
+        }
+    }
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM order_outbox");
+    }
+
+    private OutboxRelay relay(OutboxSink sink, int batchSize) {
+        return new OutboxRelay(outboxEventRepository, sink, transactionTemplate, batchSize, Duration.ofDays(1));
+    }
+
+    private void writeCreated(long id, Long orderId) throws Exception {
+        OrderResponse order = new OrderResponse();
+        order.setOrderId(orderId);
+        order.setStatus(OrderStatus.PENDING);
+        order.setItems(List.of());
+        order.setCreatedAt(T0);
+        write(id, orderId, OrderStatus.PENDING, OutboxEventType.ORDER_CREATED, order);
+    }
+
+    private void writeChanged(long id, Long orderId, OrderStatus from, OrderStatus to) throws Exception {
+        write(id, orderId, to, OutboxEventType.ORDER_STATUS_CHANGED, new OrderStatusChangedEvent(orderId, from, to));
+    }
+
+    private void write(long id, Long orderId, OrderStatus reached, OutboxEventType type, Object payload) throws Exception {
+        jdbcTemplate.update("INSERT INTO order_outbox (id, order_id, order_sequence, event_type, payload, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                id, orderId, reached.depth(), type.name(), objectMapper.writeValueAsString(payload), T0.plusSeconds(id));
+    }
+
+    private List<Long> unpublishedIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM order_outbox WHERE published_at IS NULL ORDER BY id", Long.class);
+    }
+
+    private static List<Long> idsOf(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::id).toList();
+    }
+
+    @Test
+    @DisplayName("Events the sink rejected stay unpublished and are delivered again by the next run")
+    void relay_SinkFailure_RedeliversBatch() throws Exception {
+        writeCreated(1, 1L);
+        writeCreated(2, 2L);
+        List<List<Long>> attempts = Collections.synchronizedList(new ArrayList<>());
+
+        relay(messages -> {
+            attempts.add(idsOf(messages));
+            throw new IllegalStateException("sink down");
+        }, 10).relay();
+        assertEquals(List.of(1L, 2L), unpublishedIds());
+
+        relay(messages -> attempts.add(idsOf(messages)), 10).relay();
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(1L, 2L)), attempts);
+        assertEquals(List.of(), unpublishedIds());
+    }
+
+    @Test
+    @DisplayName("The events of one order leave in the order they happened, not in outbox ID order")
+    void relay_EventsOfOneOrder_DeliveredInSequence() throws Exception {
+        // Another instance allocated the lower IDs, so the later changes of order 1 have smaller IDs than its creation
+        writeChanged(1, 1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED);
+        writeChanged(2, 1L, OrderStatus.PENDING, OrderStatus.PROCESSING);
+        writeCreated(600, 1L);
+        writeCreated(601, 2L);
+        List<List<Long>> batches = new ArrayList<>();
+
+        relay(messages -> batches.add(idsOf(messages)), 10).relay();
+
+        assertEquals(List.of(List.of(600L, 601L), List.of(2L), List.of(1L)), batches);
+    }
+
+    @Test
+    @DisplayName("Concurrent relays skip each other's events and never deliver an order's next event early")
+    void relay_ConcurrentRelays_SkipLockedEvents() throws Exception {
+        writeCreated(1, 1L);
+        writeCreated(2, 2L);
+        writeChanged(3, 1L, OrderStatus.PENDING, OrderStatus.PROCESSING);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Long>> slowBatches = Collections.synchronizedList(new ArrayList<>());
+        List<List<Long>> fastBatches = Collections.synchronizedList(new ArrayList<>());
+
+        // The slow relay claims the first event of orders 1 and 2 and holds them until released
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> relay(messages -> {
+            slowBatches.add(idsOf(messages));
+            if (slowBatches.size() == 1) {
+                holding.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+        }, 2).relay());
+        assertTrue(holding.await(10, TimeUnit.SECONDS));
+        // Written once the slow relay holds its batch: H2 locks every row a sorted locking read matched
+        writeCreated(4, 3L);
+        writeCreated(5, 4L);
+        relay(messages -> fastBatches.add(idsOf(messages)), 2).relay();
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1L, 2L), slowBatches.get(0));
+        // Event 3 follows event 1, which the slow relay still held, so only the other orders went to the fast one
+        assertEquals(List.of(List.of(4L, 5L)), fastBatches);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), slowBatches);
+        assertEquals(List.of(), unpublishedIds());
+    }
+
+    @Test
+    @DisplayName("Purging deletes only events published before the retention period")
+    void purgePublished_DeletesOnlyExpiredEvents() throws Exception {
+        writeCreated(1, 1L);
+        writeCreated(2, 2L);
+        writeCreated(3, 3L);
+        jdbcTemplate.update("UPDATE order_outbox SET published_at = ? WHERE id = 1", LocalDateTime.now().minusDays(2));
+        jdbcTemplate.update("UPDATE order_outbox SET published_at = ? WHERE id = 2", LocalDateTime.now().minusHours(1));
+
+        relay(messages -> { }, 10).purgePublished();
+
+        assertEquals(List.of(2L, 3L), jdbcTemplate.queryForList("SELECT id FROM order_outbox ORDER BY id", Long.class));
+    }
+}
@@ -0,0 +1,81 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoolWaitMonitorTest {
+
+    private static class FixedPoolStats extends PoolStats {
+        FixedPoolStats() {
+            super(Long.MAX_VALUE);
+        }
+
+        void setPendingThreads(int pending) {
+            this.pendingThreads = pending;
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+
+    private final List<Long> delegated = new ArrayList<>();
+    private final FixedPoolStats stats = new FixedPoolStats();
+    private final PoolWaitMonitor monitor = new PoolWaitMonitor(Duration.ofMillis(100));
+    private final IMetricsTracker tracker = monitor.track((poolName, poolStats) -> new IMetricsTracker() {
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegated.add(elapsedAcquiredNanos);
+        }
+    }, () -> 2000).create("primary", stats);
+
+    @Test
+    @DisplayName("Long waits with callers still queued saturate the pool")
+    void longWaitsWithQueue_Saturated() {
+        stats.setPendingThreads(3);
+        for (int i = 0; i < 10; i++) {
+            tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(300));
+        }
+
+        assertTrue(monitor.isSaturated());
+        assertEquals(10, delegated.size());
+    }
+
+    @Test
+    @DisplayName("An average above the threshold does not shed once nobody is queued")
+    void longWaitsWithoutQueue_NotSaturated() {
+        for (int i = 0; i < 10; i++) {
+            tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(300));
+        }
+        stats.setPendingThreads(0);
+
+        assertFalse(monitor.isSaturated());
+    }
+
+    @Test
+    @DisplayName("Short waits keep the average below the threshold and timeouts push it above")
+    void shortWaits_NotSaturated_TimeoutsSaturate() {
+        stats.setPendingThreads(3);
+        for (int i = 0; i < 10; i++) {
+            tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertFalse(monitor.isSaturated());
+
+        tracker.recordConnectionTimeout();
+        tracker.recordConnectionTimeout();
+
+        assertTrue(monitor.isSaturated());
+        assertTrue(monitor.averageWait().compareTo(Duration.ofMillis(100)) > 0);
+    }
+}
@@ -0,0 +1,195 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import com.knighteye097.order_processing_system.exception.GlobalExceptionHandler;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the interceptor in front of a stub controller, with budgets small enough to exhaust in a test.
+ */
+class RateLimitInterceptorTest {
+
+    @RestController
+    static class StubController {
+
+        @GetMapping("/cheap")
+        @RateLimited(RateLimitTier.CHEAP)
+        public String cheap() {
+            return "ok";
+        }
+
+        @GetMapping("/expensive")
+        @RateLimited(RateLimitTier.EXPENSIVE)
+        public String expensive() {
+            return "ok";
+        }
+
+        @GetMapping(value = "/expensive/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @RateLimited(RateLimitTier.EXPENSIVE)
+        public String expensiveStream() {
+            return "{}\n";
+        }
+
+        @GetMapping("/unlimited")
+        public String unlimited() {
+            return "ok";
+        }
+    }
+
+    private static class FixedPoolStats extends PoolStats {
+        FixedPoolStats(int pendingThreads) {
+            super(Long.MAX_VALUE);
+            this.pendingThreads = pendingThreads;
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+
+    private final PoolWaitMonitor poolWaitMonitor = new PoolWaitMonitor(Duration.ofMillis(100));
+
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(Map.of(
+            RateLimitTier.CHEAP, new ClientRateLimiter.Budget(5, 1),
+            RateLimitTier.EXPENSIVE, new ClientRateLimiter.Budget(2, 0.5)), 1000);
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+            .addInterceptors(new RateLimitInterceptor(rateLimiter, rateLimiter.scaledBy(4), poolWaitMonitor,
+                    "X-Api-Key", Duration.ofSeconds(3), new SimpleMeterRegistry()))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    private void saturatePool() {
+        IMetricsTracker tracker = poolWaitMonitor.track((poolName, stats) -> new IMetricsTracker() {
+        }, () -> 1000).create("primary", new FixedPoolStats(4));
+        for (int i = 0; i < 10; i++) {
+            tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+    }
+
+    @Test
+    @DisplayName("Requests over a client's budget get 429 with Retry-After rounded up to whole seconds")
+    void overBudget_Returns429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-a"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-a"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(429));
+    }
+
+    @Test
+    @DisplayName("Clients and tiers have separate budgets")
+    void budgets_ArePerClientAndTier() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-a"));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-a"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+        mockMvc.perform(MockMvcRequestBuilders.get("/cheap").header("X-Api-Key", "client-a"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-b"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        // Without the header the client is its remote address
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @DisplayName("Rotating API keys from one address is limited by the address's shared budget")
+    void rotatingKeys_LimitedByAddress() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "rotated-" + i))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "rotated-8"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().exists("Retry-After"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "rotated-9")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        }))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @DisplayName("A key spelling out an address does not share that address's client budget")
+    void keyNamedLikeAddress_SeparateBudget() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "127.0.0.1"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @DisplayName("Endpoints without @RateLimited are never limited")
+    void unannotated_NotLimited() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/unlimited"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+    }
+
+    @Test
+    @DisplayName("A saturated pool sheds expensive requests with 503 but still serves cheap ones")
+    void saturatedPool_ShedsExpensiveOnly() throws Exception {
+        saturatePool();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(503));
+        mockMvc.perform(MockMvcRequestBuilders.get("/cheap"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @DisplayName("Shed requests are not charged to the client's budget")
+    void shedRequests_NotCharged() throws Exception {
+        saturatePool();
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive").header("X-Api-Key", "client-a"))
+                    .andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+        }
+    }
+
+    @Test
+    @DisplayName("Refusals keep their status for clients that only accept newline-delimited JSON")
+    void ndjsonClient_GetsStatusWithoutBody() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/expensive/stream").accept(MediaType.APPLICATION_NDJSON));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().exists("Retry-After"));
+
+        saturatePool();
+        mockMvc.perform(MockMvcRequestBuilders.get("/expensive/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.knighteye097.order_processing_system.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("A new bucket allows a full burst, then refuses with the time until the next token")
+    void burst_ThenRefusedUntilRefill() {
+        // Negative start, as System.nanoTime may return
+        long start = -5 * SECOND;
+        TokenBucket bucket = new TokenBucket(3, 2, start);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(start));
+        }
+        assertEquals(SECOND / 2, bucket.tryAcquire(start));
+        assertEquals(SECOND / 4, bucket.tryAcquire(start + SECOND / 4));
+        assertEquals(0, bucket.tryAcquire(start + SECOND / 2));
+        assertEquals(SECOND / 2, bucket.tryAcquire(start + SECOND / 2));
+    }
+
+    @Test
+    @DisplayName("An idle bucket refills up to its capacity and no further")
+    void idle_RefillsToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 2, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        long later = 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertEquals(SECOND / 2, bucket.tryAcquire(later));
+        assertEquals(3 * SECOND / 2, bucket.refillNanos());
+    }
+
+    @Test
+    @DisplayName("Concurrent callers take exactly the available tokens")
+    void concurrentCallers_TakeExactlyCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(1000, 1, 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int j = 0; j < 500; j++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, granted.get());
+    }
+}
@@ -0,0 +1,359 @@
+package com.knighteye097.order_processing_system.repository;
+
+import com.knighteye097.order_processing_system.entity.Order;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL behind every repository query against the migrated schema
+ * and fails when a plan falls back to scanning a whole table.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.knighteye097.order_processing_system.repository.QueryPlanTest$CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SchemaMigrationConfig.class, OrderSearchRepository.class})
+public class QueryPlanTest {
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSearchRepository orderSearchRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    private String sqlOf(Runnable query) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.run();
+        assertEquals(1, CapturingStatementInspector.STATEMENTS.size(), CapturingStatementInspector.STATEMENTS::toString);
+        return CapturingStatementInspector.STATEMENTS.get(0);
+    }
+
+    private String assertNoFullScan(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan:\n" + plan);
+        return plan;
+    }
+
+    @Nested
+    @DisplayName("Order Repository Plans")
+    class OrderRepositoryPlans {
+
+        @Test
+        @DisplayName("countByStatus reads the status index")
+        void countByStatus() {
+            assertNoFullScan(sqlOf(() -> orderRepository.countByStatus()));
+        }
+
+        @Test
+        @DisplayName("sumQuantityByProductCreatedSince uses the created_at index and the item order index")
+        void sumQuantityByProductCreatedSince() {
+            assertNoFullScan(sqlOf(() -> orderRepository.sumQuantityByProductCreatedSince(LocalDateTime.now())));
+        }
+
+        @Test
+        @DisplayName("sumReservedQuantityByProductForOrder uses the item order index")
+        void sumReservedQuantityByProductForOrder() {
+            assertNoFullScan(sqlOf(() -> orderRepository.sumReservedQuantityByProductForOrder(1L)));
+        }
+
+        @Test
+        @DisplayName("findIdByIntakeId uses the intake id index")
+        void findIdByIntakeId() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findIdByIntakeId("intake")));
+        }
+
+        @Test
+        @DisplayName("findIdsByIntakeIdIn uses the intake id index")
+        void findIdsByIntakeIdIn() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findIdsByIntakeIdIn(List.of("intake-1", "intake-2"))));
+        }
+
+        @Test
+        @DisplayName("findStatusById uses the primary key")
+        void findStatusById() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findStatusById(1L)));
+        }
+
+        @Test
+        @DisplayName("findWithItemsById uses the primary key and the item order index")
+        void findWithItemsById() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findWithItemsById(1L)));
+        }
+
+        @Test
+        @DisplayName("findAllWithItemsByIdIn uses the primary key and the item order index")
+        void findAllWithItemsByIdIn() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findAllWithItemsByIdIn(List.of(1L, 2L, 3L))));
+        }
+
+        @Test
+        @DisplayName("findIdPageAfter seeks on the primary key")
+        void findIdPageAfter() {
+            assertNoFullScan(sqlOf(() -> orderRepository.findIdPageAfter(0L, Limit.of(100))));
+        }
+
+        @Test
+        @DisplayName("findIdPageByStatusAfter seeks on the status index")
+        void findIdPageByStatusAfter() {
+            assertNoFullScan(sqlOf(() ->
+                    orderRepository.findIdPageByStatusAfter(OrderStatus.PENDING, 0L, Limit.of(100))));
+        }
+
+        @Test
+        @DisplayName("claimIdsByStatusAfter seeks on the status index")
+        void claimIdsByStatusAfter() {
+            assertNoFullScan(sqlOf(() ->
+                    orderRepository.claimIdsByStatusAfter(OrderStatus.PENDING.name(), 0L, 500)));
+        }
+
+        @Test
+        @DisplayName("compareAndSetStatus uses the primary key")
+        void compareAndSetStatus() {
+            assertNoFullScan(sqlOf(() ->
+                    orderRepository.compareAndSetStatus(1L, OrderStatus.PENDING, OrderStatus.PROCESSING)));
+        }
+
+        @Test
+        @DisplayName("updateStatusByIdIn uses the primary key")
+        void updateStatusByIdIn() {
+            assertNoFullScan(sqlOf(() ->
+                    orderRepository.updateStatusByIdIn(OrderStatus.PENDING, OrderStatus.PROCESSING, List.of(1L, 2L))));
+        }
+    }
+
+    @Nested
+    @DisplayName("Order Search Plans")
+    class OrderSearchRepositoryPlans {
+
+        private String searchSql(Specification<Order> spec) {
+            return sqlOf(() -> orderSearchRepository.findIdPage(spec, 0L, 101));
+        }
+
+        @Test
+        @DisplayName("Searching without filters seeks on the primary key")
+        void noFilters() {
+            assertNoFullScan(searchSql(Specification.allOf()));
+        }
+
+        @Test
+        @DisplayName("Searching by creation time and status uses an index")
+        void createdAtAndStatuses() {
+            assertNoFullScan(searchSql(Specification.allOf(
+                    OrderSpecifications.createdAtOrAfter(LocalDateTime.now().minusDays(1)),
+                    OrderSpecifications.createdBefore(LocalDateTime.now()),
+                    OrderSpecifications.statusIn(List.of(OrderStatus.PENDING, OrderStatus.SHIPPED)))));
+        }
+
+        @Test
+        @DisplayName("Searching a creation time range pages along the creation time index")
+        void createdAtRangePage() {
+            Specification<Order> range = Specification.allOf(
+                    OrderSpecifications.createdAtOrAfter(LocalDateTime.now().minusDays(1)),
+                    OrderSpecifications.createdBefore(LocalDateTime.now()));
+            String first = assertNoFullScan(sqlOf(() -> orderSearchRepository.findCreatedPage(range, null, 101)));
+            String next = assertNoFullScan(sqlOf(() -> orderSearchRepository.findCreatedPage(range,
+                    new OrderKey(LocalDateTime.now().minusHours(1), 42L), 101)));
+            // InnoDB appends the primary key to every secondary index, so the creation time index returns the
+            // range in (created_at, id) order and MySQL needs no filesort
+            assertTrue(first.contains("idx_orders_created_at"), first);
+            assertTrue(next.contains("idx_orders_created_at"), next);
+        }
+
+        @Test
+        @DisplayName("Searching by product probes the product order index")
+        void containsProduct() {
+            String plan = assertNoFullScan(searchSql(Specification.allOf(
+                    OrderSpecifications.containsProduct(1),
+                    OrderSpecifications.hasAtLeastItems(2))));
+            assertTrue(plan.contains("idx_order_items_product_order"), plan);
+        }
+    }
+
+    @Nested
+    @DisplayName("Outbox Repository Plans")
+    class OutboxEventRepositoryPlans {
+
+        @Test
+        @DisplayName("lockUnpublished uses the published_at index")
+        void lockUnpublished() {
+            assertNoFullScan(sqlOf(() -> outboxEventRepository.lockUnpublished(Limit.of(200))));
+        }
+
+        @Test
+        @DisplayName("markPublished uses the primary key")
+        void markPublished() {
+            assertNoFullScan(sqlOf(() -> outboxEventRepository.markPublished(List.of(1L, 2L), LocalDateTime.now())));
+        }
+
+        @Test
+        @DisplayName("deletePublishedBefore uses the published_at index")
+        void deletePublishedBefore() {
+            assertNoFullScan(sqlOf(() -> outboxEventRepository.deletePublishedBefore(LocalDateTime.now())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Product Repository Plans")
+    class ProductRepositoryPlans {
+
+        @Test
+        @DisplayName("findByNameIn uses the unique name index")
+        void findByNameIn() {
+            assertNoFullScan(sqlOf(() -> productRepository.findByNameIn(List.of("Lamp", "Desk"))));
+        }
+
+        @Test
+        @DisplayName("findAllById uses the primary key")
+        void findAllById() {
+            assertNoFullScan(sqlOf(() -> productRepository.findAllById(List.of(1, 2))));
+        }
+    }
+
+    @Nested
+    @DisplayName("Inventory Repository Plans")
+    class InventoryRepositoryPlans {
+
+        @Test
+        @DisplayName("Writing back stock changes uses the primary key")
+        void addToAvailable() {
+            assertNoFullScan(InventoryRepository.ADD_TO_AVAILABLE);
+        }
+
+        @Test
+        @DisplayName("Finding abandoned reservations uses the pending index")
+        void selectAbandoned() {
+            assertNoFullScan(InventoryRepository.SELECT_ABANDONED);
+        }
+
+        @Test
+        @DisplayName("Claiming pending reservations uses the primary key")
+        void claimPending() {
+            assertNoFullScan(InventoryRepository.LOCK_PENDING.replace(":ids", "?, ?, ?"));
+            assertNoFullScan(InventoryRepository.CLEAR_PENDING.replace(":ids", "?, ?, ?"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Order Status History Repository Plans")
+    class OrderStatusHistoryRepositoryPlans {
+
+        @Test
+        @DisplayName("Appending a change finds the previous one through the order index")
+        void append() {
+            assertNoFullScan(OrderStatusHistoryRepository.APPEND);
+        }
+
+        @Test
+        @DisplayName("Reading an order's history uses the order index")
+        void selectByOrder() {
+            assertNoFullScan(OrderStatusHistoryRepository.SELECT_BY_ORDER);
+        }
+
+        @Test
+        @DisplayName("Time-in-status reports read a range of the report index")
+        void timeInStatusReport() {
+            assertNoFullScan(OrderStatusHistoryRepository.COUNT_LEFT);
+            assertNoFullScan(OrderStatusHistoryRepository.SELECT_DURATION_AT_RANK);
+        }
+    }
+
+    @Nested
+    @DisplayName("Export Repository Plans")
+    class OrderExportRepositoryPlans {
+
+        @Test
+        @DisplayName("Exporting by status uses the status index, the item order index and the product key")
+        void exportByStatus() {
+            assertNoFullScan(OrderExportRepository.SELECT_BY_STATUS);
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive Repository Plans")
+    class OrderArchiveRepositoryPlans {
+
+        @Test
+        @DisplayName("Selecting archivable orders uses an index")
+        void selectArchivableIds() {
+            assertNoFullScan(OrderArchiveRepository.SELECT_ARCHIVABLE_IDS
+                    .replace(":cutoff", "?").replace(":statuses", "?, ?").replace(":limit", "?"));
+        }
+
+        @Test
+        @DisplayName("Moving a chunk only touches the chunk's rows")
+        void moveToArchive() {
+            for (String sql : List.of(OrderArchiveRepository.COPY_ORDERS, OrderArchiveRepository.COPY_ITEMS,
+                    OrderArchiveRepository.DELETE_ITEMS, OrderArchiveRepository.DELETE_ORDERS)) {
+                assertNoFullScan(sql.replace(":archivedAt", "?").replace(":ids", "?, ?, ?"));
+            }
+        }
+
+        @Test
+        @DisplayName("Reading an archived order uses the archive keys")
+        void selectArchivedOrder() {
+            assertNoFullScan(OrderArchiveRepository.SELECT_ARCHIVED_ORDER.replace(":id", "?"));
+            assertNoFullScan(OrderArchiveRepository.SELECT_ARCHIVED_STATUS.replace(":id", "?"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Idempotency Key Repository Plans")
+    class IdempotencyKeyRepositoryPlans {
+
+        @Test
+        @DisplayName("Looking up a key uses the primary key")
+        void selectByKey() {
+            assertNoFullScan(IdempotencyKeyRepository.SELECT_BY_KEY);
+        }
+
+        @Test
+        @DisplayName("Purging expired keys uses the created_at index")
+        void deleteCreatedBefore() {
+            assertNoFullScan(IdempotencyKeyRepository.DELETE_CREATED_BEFORE);
+        }
+    }
+}
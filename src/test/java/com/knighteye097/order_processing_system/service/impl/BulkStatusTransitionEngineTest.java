@@ -0,0 +1,115 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderStatusChangedEvent;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs several engines at once against committed data, as several application instances would.
+ * Uses its own database because every transaction here commits.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:bulk-transition;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkStatusTransitionEngineTest {
+
+    private static final int ORDERS = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedPendingOrders() {
+        jdbcTemplate.update("DELETE FROM orders_table");
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            rows.add(new Object[]{id, LocalDateTime.now(), OrderStatus.PENDING.name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders_table (id, created_at, status) VALUES (?, ?, ?)", rows);
+    }
+
+    private BulkStatusTransitionEngine engine(ApplicationEventPublisher publisher, int workers) {
+        return new BulkStatusTransitionEngine(orderRepository, transactionTemplate, publisher, 25, workers);
+    }
+
+    @Test
+    @DisplayName("Concurrent instances with parallel workers move every order exactly once")
+    void concurrentEngines_MoveEveryOrderOnce() throws Exception {
+        List<Long> moved = Collections.synchronizedList(new ArrayList<>());
+        ApplicationEventPublisher publisher = event -> moved.add(((OrderStatusChangedEvent) event).orderId());
+        BulkStatusTransitionEngine first = engine(publisher, 3);
+        BulkStatusTransitionEngine second = engine(publisher, 3);
+
+        CompletableFuture<Integer> firstRun = CompletableFuture.supplyAsync(
+                () -> first.transitionAll(OrderStatus.PENDING, OrderStatus.PROCESSING));
+        CompletableFuture<Integer> secondRun = CompletableFuture.supplyAsync(
+                () -> second.transitionAll(OrderStatus.PENDING, OrderStatus.PROCESSING));
+
+        assertEquals(ORDERS, firstRun.get(30, TimeUnit.SECONDS) + secondRun.get(30, TimeUnit.SECONDS));
+        assertEquals(ORDERS, moved.size());
+        assertEquals(ORDERS, new HashSet<>(moved).size());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM orders_table WHERE status = 'PENDING'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("A claimed chunk is skipped by other claimers instead of blocking them")
+    void claimedChunk_IsSkippedByOthers() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> holder = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = orderRepository.claimIdsByStatusAfter(OrderStatus.PENDING.name(), 0L, 10);
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return ids;
+        }));
+        assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+        // Returns while the first chunk is still locked; a blocking claim would wait for the release below
+        List<Long> other = transactionTemplate.execute(status ->
+                orderRepository.claimIdsByStatusAfter(OrderStatus.PENDING.name(), 0L, 10));
+        release.countDown();
+
+        List<Long> held = holder.get(10, TimeUnit.SECONDS);
+        assertEquals(10, held.size());
+        // MySQL hands out the next ten orders; H2 skips every row once the claim goes through the status index
+        assertTrue(Collections.disjoint(held, other));
+    }
+}
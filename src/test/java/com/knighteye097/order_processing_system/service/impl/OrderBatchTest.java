@@ -0,0 +1,120 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.dto.BatchOrderResult;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.inventory.InventoryLedger;
+import com.knighteye097.order_processing_system.metrics.OrderMetrics;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import com.knighteye097.order_processing_system.repository.OrderExportRepository;
+import com.knighteye097.order_processing_system.repository.OrderSearchRepository;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.stats.OrderStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creates batches of orders in chunks of two. Uses its own database because each chunk, and each order retried
+ * after its chunk failed, commits in a transaction of its own.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "orders.batch.chunk-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({OrderServiceImpl.class, OrderSearchRepository.class, OrderExportRepository.class, OrderArchiveRepository.class,
+        OrderStatusHistoryRepository.class, BulkStatusTransitionEngine.class, OrderArchiver.class,
+        OrderStatistics.class, OrderResponseCache.class,
+        ProductCatalog.class, InventoryLedger.class, InventoryRepository.class, OrderMetrics.class,
+        SimpleMeterRegistry.class, SchemaMigrationConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderBatchTest {
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedStock() {
+        jdbcTemplate.update("DELETE FROM inventory");
+        Integer desk = productCatalog.resolveIds(List.of("Desk")).get("Desk");
+        jdbcTemplate.update("INSERT INTO inventory (product_id, available) VALUES (?, 1)", desk);
+        inventoryLedger.sync();
+    }
+
+    private static OrderRequest order(String productName, int quantity) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(new ItemDto(productName, quantity)));
+        return request;
+    }
+
+    private int ordersOf(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM orders_table WHERE id = ?", Integer.class, orderId);
+    }
+
+    @Test
+    @DisplayName("A chunk that fails as a whole is retried order by order, so only the failing order is rejected")
+    void createOrders_ChunkFails_FallsBackToSingleOrders() {
+        // The last desk goes to the first order of the second chunk, so the chunk's second desk fails it
+        List<BatchOrderResult> results = orderService.createOrders(List.of(
+                order("Lamp", 1),
+                order("Chair", 2),
+                order("Desk", 1),
+                order("Desk", 1),
+                order("Lamp", 3)));
+
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(BatchOrderResult::getIndex).toList());
+        assertNull(results.get(3).getOrderId());
+        assertTrue(results.get(3).getError().contains("Desk"), results.get(3).getError());
+        for (int i : List.of(0, 1, 2, 4)) {
+            assertNotNull(results.get(i).getOrderId(), "order " + i);
+            assertNull(results.get(i).getError(), "order " + i);
+            assertEquals(1, ordersOf(results.get(i).getOrderId()));
+        }
+        assertEquals(0L, inventoryLedger.available(productCatalog.resolveIds(List.of("Desk")).get("Desk")).getAsLong());
+    }
+
+    @Test
+    @DisplayName("Orders failing validation are rejected without failing the chunk they would have joined")
+    void createOrders_InvalidOrder_RejectedAlone() {
+        List<BatchOrderResult> results = orderService.createOrders(List.of(
+                order("Lamp", 1),
+                new OrderRequest(),
+                order("Chair", 1)));
+
+        assertNotNull(results.get(0).getOrderId());
+        assertEquals("Order must contain at least one item", results.get(1).getError());
+        assertNotNull(results.get(2).getOrderId());
+    }
+}
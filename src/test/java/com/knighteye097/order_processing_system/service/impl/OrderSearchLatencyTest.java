@@ -0,0 +1,224 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderPage;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.inventory.InventoryLedger;
+import com.knighteye097.order_processing_system.metrics.OrderMetrics;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import com.knighteye097.order_processing_system.repository.OrderExportRepository;
+import com.knighteye097.order_processing_system.repository.OrderSearchRepository;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.stats.OrderStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds a large order table and checks that every kind of search returns exactly the matching orders
+ * and serves a page within its latency budget. Uses its own database because the seed is committed once
+ * and shared by all tests.
+ */
+@DataJpaTest(properties = "spring.datasource.url="
+        + "jdbc:h2:mem:order-search;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({OrderServiceImpl.class, OrderSearchRepository.class, OrderExportRepository.class, OrderArchiveRepository.class,
+        OrderStatusHistoryRepository.class, BulkStatusTransitionEngine.class, OrderArchiver.class, OrderStatistics.class,
+        OrderResponseCache.class, ProductCatalog.class, InventoryLedger.class, InventoryRepository.class, OrderMetrics.class,
+        SimpleMeterRegistry.class, SchemaMigrationConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderSearchLatencyTest {
+
+    private static final int ORDERS = 50_000;
+    private static final int PRODUCTS = 100;
+    // One order in RARE_EVERY contains the rare product, so finding a page of them means skipping many others
+    private static final int RARE_EVERY = 400;
+    private static final String RARE_PRODUCT = "Rare Product";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int PAGE_SIZE = 100;
+    private static final int WARM_UP_RUNS = 20;
+    private static final int MEASURED_RUNS = 50;
+    private static final Duration PAGE_BUDGET = Duration.ofMillis(150);
+
+    private record SeededOrder(long id, LocalDateTime createdAt, OrderStatus status, int itemCount, Set<String> products) {
+    }
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<SeededOrder> seeded = new ArrayList<>();
+
+    @BeforeAll
+    void seedOrders() {
+        List<String> names = new ArrayList<>(IntStream.range(0, PRODUCTS).mapToObj(i -> "Product " + i).toList());
+        names.add(RARE_PRODUCT);
+        Map<String, Integer> productIds = productCatalog.resolveIds(names);
+
+        Random random = new Random(42);
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        long itemId = 1;
+        for (long id = 1; id <= ORDERS; id++) {
+            LocalDateTime createdAt = START.plusMinutes(id);
+            OrderStatus status = statuses[random.nextInt(statuses.length)];
+            List<String> products = new ArrayList<>();
+            int itemCount = 1 + random.nextInt(6);
+            for (int i = 0; i < itemCount; i++) {
+                products.add(names.get(random.nextInt(PRODUCTS)));
+            }
+            if (id % RARE_EVERY == 0) {
+                products.set(0, RARE_PRODUCT);
+            }
+            for (String product : products) {
+                items.add(new Object[]{itemId++, productIds.get(product), 1 + random.nextInt(5), id});
+            }
+            orders.add(new Object[]{id, createdAt, status.name(), itemCount});
+            seeded.add(new SeededOrder(id, createdAt, status, itemCount, new HashSet<>(products)));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders_table (id, created_at, status, item_count) VALUES (?, ?, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, product_id, quantity, order_id) VALUES (?, ?, ?, ?)", items);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private List<Long> expectedIds(Predicate<SeededOrder> filter) {
+        return seeded.stream().filter(filter).map(SeededOrder::id).toList();
+    }
+
+    /**
+     * Walks every page of the search and returns the IDs of all orders found, in order.
+     */
+    private List<Long> searchAll(OrderSearchCriteria criteria, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = orderService.searchOrders(criteria, cursor, limit);
+            assertTrue(page.getOrders().size() <= limit);
+            page.getOrders().forEach(order -> ids.add(order.getOrderId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    /**
+     * Serves the first page of the search repeatedly and fails when the 95th percentile exceeds the budget.
+     */
+    private void assertWithinBudget(OrderSearchCriteria criteria) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            orderService.searchOrders(criteria, null, PAGE_SIZE);
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            orderService.searchOrders(criteria, null, PAGE_SIZE);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        Duration p95 = Duration.ofNanos(nanos[(int) Math.ceil(MEASURED_RUNS * 0.95) - 1]);
+        assertTrue(p95.compareTo(PAGE_BUDGET) <= 0,
+                () -> "p95 of " + p95.toMillis() + " ms exceeds the budget of " + PAGE_BUDGET.toMillis() + " ms for " + criteria);
+    }
+
+    @Test
+    @DisplayName("Searching by creation time range and several statuses returns exactly the matching orders")
+    void createdAtRangeAndStatuses() {
+        LocalDateTime from = START.plusDays(10);
+        LocalDateTime to = START.plusDays(12);
+        Set<OrderStatus> statuses = Set.of(OrderStatus.PENDING, OrderStatus.SHIPPED);
+        OrderSearchCriteria criteria = new OrderSearchCriteria(from, to, statuses, null, null);
+
+        assertEquals(expectedIds(order -> !order.createdAt().isBefore(from) && order.createdAt().isBefore(to)
+                && statuses.contains(order.status())), searchAll(criteria, 500));
+        assertWithinBudget(criteria);
+    }
+
+    @Test
+    @DisplayName("Searching by product and minimum item count returns exactly the matching orders with all their items")
+    void productAndMinItems() {
+        OrderSearchCriteria criteria = new OrderSearchCriteria(null, null, null, "Product 7", 4);
+
+        OrderPage firstPage = orderService.searchOrders(criteria, null, PAGE_SIZE);
+        for (OrderResponse order : firstPage.getOrders()) {
+            assertTrue(order.getItems().size() >= 4);
+            assertTrue(order.getItems().stream().map(ItemDto::getProductName).anyMatch("Product 7"::equals));
+        }
+        assertEquals(expectedIds(order -> order.products().contains("Product 7")
+                && order.itemCount() >= 4), searchAll(criteria, 1000));
+        assertWithinBudget(criteria);
+    }
+
+    @Test
+    @DisplayName("Searching for a rare product stays within budget although most orders are skipped")
+    void rareProduct() {
+        OrderSearchCriteria criteria = new OrderSearchCriteria(null, null, Set.of(OrderStatus.values()), RARE_PRODUCT, null);
+
+        assertEquals(expectedIds(order -> order.products().contains(RARE_PRODUCT)), searchAll(criteria, PAGE_SIZE));
+        assertWithinBudget(criteria);
+    }
+
+    @Test
+    @DisplayName("Searching with every filter combined stays within budget")
+    void allFilters() {
+        LocalDateTime from = START.plusDays(5);
+        LocalDateTime to = START.plusDays(25);
+        Set<OrderStatus> statuses = Set.of(OrderStatus.PROCESSING, OrderStatus.DELIVERED);
+        OrderSearchCriteria criteria = new OrderSearchCriteria(from, to, statuses, "Product 42", 3);
+
+        assertEquals(expectedIds(order -> !order.createdAt().isBefore(from) && order.createdAt().isBefore(to)
+                && statuses.contains(order.status()) && order.products().contains("Product 42")
+                && order.itemCount() >= 3), searchAll(criteria, 1000));
+        assertWithinBudget(criteria);
+    }
+
+    @Test
+    @DisplayName("Searching for an unknown product returns an empty last page without creating the product")
+    void unknownProduct() {
+        OrderPage page = orderService.searchOrders(new OrderSearchCriteria(null, null, null, "No Such Product", null), null, PAGE_SIZE);
+
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE name = 'No Such Product'", Integer.class));
+    }
+}
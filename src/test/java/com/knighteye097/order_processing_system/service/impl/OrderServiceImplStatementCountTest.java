@@ -0,0 +1,387 @@
+package com.knighteye097.order_processing_system.service.impl;
+
+import com.knighteye097.order_processing_system.cache.OrderResponseCache;
+import com.knighteye097.order_processing_system.catalog.ProductCatalog;
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderPage;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.dto.OrderSearchCriteria;
+import com.knighteye097.order_processing_system.dto.OrderStats;
+import com.knighteye097.order_processing_system.entity.Order;
+import com.knighteye097.order_processing_system.entity.OrderItem;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import com.knighteye097.order_processing_system.event.OrderCreatedEvent;
+import com.knighteye097.order_processing_system.inventory.InventoryLedger;
+import com.knighteye097.order_processing_system.metrics.OrderMetrics;
+import com.knighteye097.order_processing_system.migration.SchemaMigrationConfig;
+import com.knighteye097.order_processing_system.repository.InventoryRepository;
+import com.knighteye097.order_processing_system.repository.OrderArchiveRepository;
+import com.knighteye097.order_processing_system.repository.OrderExportRepository;
+import com.knighteye097.order_processing_system.repository.OrderRepository;
+import com.knighteye097.order_processing_system.repository.OrderSearchRepository;
+import com.knighteye097.order_processing_system.repository.OrderStatusHistoryRepository;
+import com.knighteye097.order_processing_system.repository.ProductRepository;
+import com.knighteye097.order_processing_system.stats.OrderStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({OrderServiceImpl.class, OrderSearchRepository.class, OrderExportRepository.class, OrderArchiveRepository.class, OrderStatusHistoryRepository.class,
+        BulkStatusTransitionEngine.class, OrderArchiver.class, OrderStatistics.class,
+        OrderResponseCache.class, ProductCatalog.class, InventoryLedger.class, InventoryRepository.class, OrderMetrics.class, SimpleMeterRegistry.class, SchemaMigrationConfig.class})
+public class OrderServiceImplStatementCountTest {
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatistics orderStatistics;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    private List<Long> persistOrders(int count, int itemsPerOrder) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setStatus(OrderStatus.PENDING);
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                String product = "Product " + j;
+                OrderItem item = new OrderItem(productCatalog.resolveIds(List.of(product)).get(product), j + 1);
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setItems(items);
+            ids.add(entityManager.persist(order).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Nested
+    @DisplayName("Read Path Tests")
+    class ReadPathTests {
+
+        @Test
+        @DisplayName("Listing orders costs the same number of statements for small and large pages")
+        void getAllOrders_StatementCountIndependentOfPageSize() {
+            persistOrders(3, 2);
+            long small = statementsFor(() -> {
+                OrderPage page = orderService.getAllOrders(Optional.empty(), null, 100);
+                assertEquals(3, page.getOrders().size());
+                page.getOrders().forEach(order -> assertEquals(2, order.getItems().size()));
+            });
+
+            persistOrders(47, 2);
+            long large = statementsFor(() -> {
+                OrderPage page = orderService.getAllOrders(Optional.empty(), null, 100);
+                assertEquals(50, page.getOrders().size());
+                page.getOrders().forEach(order -> assertEquals(2, order.getItems().size()));
+            });
+
+            assertEquals(2, small);
+            assertEquals(small, large);
+        }
+
+        @Test
+        @DisplayName("Searching a creation time range pages in creation order, whatever the order of the IDs")
+        void searchOrders_CreatedRange_PagesInCreationOrder() {
+            List<Long> ids = persistOrders(3, 1);
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+            // Another instance allocated the later IDs first, so the newest order has the lowest ID
+            for (int i = 0; i < ids.size(); i++) {
+                entityManager.getEntityManager().createQuery("update Order o set o.createdAt = :createdAt where o.id = :id")
+                        .setParameter("createdAt", start.plusMinutes(ids.size() - i))
+                        .setParameter("id", ids.get(i))
+                        .executeUpdate();
+            }
+            OrderSearchCriteria criteria = new OrderSearchCriteria(start, start.plusDays(1), null, null, null);
+
+            OrderPage first = orderService.searchOrders(criteria, null, 2);
+            OrderPage second = orderService.searchOrders(criteria, first.getNextCursor(), 2);
+
+            assertEquals(List.of(ids.get(2), ids.get(1)), first.getOrders().stream().map(OrderResponse::getOrderId).toList());
+            assertEquals(List.of(ids.get(0)), second.getOrders().stream().map(OrderResponse::getOrderId).toList());
+            assertNull(second.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Getting an order by id loads the order and its items in one statement")
+        void getOrderById_LoadsItemsInSingleStatement() {
+            Long id = persistOrders(1, 5).get(0);
+            long statements = statementsFor(() ->
+                    assertEquals(5, orderService.getOrderById(id).getItems().size()));
+
+            assertEquals(1, statements);
+        }
+
+        @Test
+        @DisplayName("Getting a cached order by id issues no statements")
+        void getOrderById_CachedOrder_IssuesNoStatements() {
+            Long id = persistOrders(1, 5).get(0);
+            orderService.getOrderById(id);
+            long statements = statementsFor(() ->
+                    assertEquals(5, orderService.getOrderById(id).getItems().size()));
+
+            assertEquals(0, statements);
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Order Tests")
+    class CreateOrderTests {
+
+        private OrderRequest requestWithItems(int count) {
+            List<ItemDto> items = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                items.add(new ItemDto("Product " + i, 1));
+            }
+            OrderRequest request = new OrderRequest();
+            request.setItems(items);
+            return request;
+        }
+
+        private long statementsToCreate(int itemCount) {
+            return statementsFor(() -> {
+                orderService.createOrder(requestWithItems(itemCount));
+                entityManager.flush();
+            });
+        }
+
+        @Test
+        @DisplayName("Creating an order batches its item inserts instead of one statement per item")
+        void createOrder_StatementCountIndependentOfItemCount() {
+            // Warm up the pooled id generators and the product catalog so the measured calls only pay for the inserts
+            statementsToCreate(50);
+
+            long single = statementsToCreate(1);
+            long fifty = statementsToCreate(50);
+
+            assertEquals(2, single);
+            assertEquals(single, fifty);
+        }
+
+        @Test
+        @DisplayName("Replaying queued orders returns the existing orders instead of creating them again")
+        void createQueuedOrders_Replay_CreatesOnce() {
+            Map<String, OrderRequest> requests = new LinkedHashMap<>();
+            requests.put("intake-replay-1", requestWithItems(2));
+            requests.put("intake-replay-2", requestWithItems(1));
+
+            Map<String, Long> first = orderService.createQueuedOrders(requests);
+            entityManager.clear();
+            Map<String, Long> replayed = orderService.createQueuedOrders(requests);
+
+            assertEquals(first, replayed);
+            assertEquals(Optional.of(first.get("intake-replay-1")), orderService.findOrderIdByTrackingId("intake-replay-1"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Product Catalog Tests")
+    class ProductCatalogTests {
+
+        @Test
+        @DisplayName("Products created elsewhere are read back in one query instead of being inserted again")
+        void resolveIds_ProductsCreatedByAnotherInstance_ReadBackInOneStatement() {
+            List<String> names = List.of("Catalog Lamp", "Catalog Desk", "Catalog Chair");
+            Map<String, Integer> created = productCatalog.resolveIds(names);
+            ProductCatalog otherInstance = new ProductCatalog(productRepository, transactionManager, new SimpleMeterRegistry());
+
+            long statements = statementsFor(() -> assertEquals(created, otherInstance.resolveIds(names)));
+
+            assertEquals(1, statements);
+            assertEquals(0, statementsFor(() -> assertEquals(created, otherInstance.resolveIds(names))));
+        }
+
+        @Test
+        @DisplayName("Names differing only in case are different products")
+        void resolveIds_NamesDifferingInCase_ResolveToDifferentProducts() {
+            Map<String, Integer> ids = productCatalog.resolveIds(List.of("Case Lamp", "case lamp"));
+
+            assertEquals(2, ids.size());
+            assertNotEquals(ids.get("Case Lamp"), ids.get("case lamp"));
+            assertEquals(ids, productCatalog.resolveIds(List.of("Case Lamp", "case lamp")));
+        }
+
+        @Test
+        @DisplayName("An item without a product name is stored without a product and read back without a name")
+        void createOrder_ItemWithoutProductName_StoredWithoutProduct() {
+            OrderRequest request = new OrderRequest();
+            request.setItems(List.of(new ItemDto(null, 2), new ItemDto("Named Product", 1)));
+            List<ItemDto> expected = List.of(new ItemDto(null, 2), new ItemDto("Named Product", 1));
+            long productsBefore = productRepository.count();
+
+            Long id = orderService.createOrder(request).getOrderId();
+            entityManager.flush();
+            entityManager.clear();
+
+            assertEquals(expected, orderService.getOrderById(id).getItems());
+            List<ItemDto> exported = new ArrayList<>();
+            orderService.exportOrders(Optional.empty(), order -> exported.addAll(order.getItems()));
+            assertEquals(expected, exported);
+            assertEquals(productsBefore + 1, productRepository.count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Status Transition Tests")
+    class StatusTransitionTests {
+
+        @Test
+        @DisplayName("A legal transition changes the order with a single conditional update")
+        void updateOrderStatus_LegalTransition_SingleConditionalUpdate() {
+            // Only the update: the outbox and history batch is written at commit, which this rolled back test never
+            // reaches; OrderMetricsTest counts a committed transition
+            Long id = persistOrders(1, 1).get(0);
+            long statements = statementsFor(() -> orderService.updateOrderStatus(id, OrderStatus.PROCESSING));
+
+            assertEquals(1, statements);
+            assertEquals(OrderStatus.PROCESSING, orderRepository.findStatusById(id).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("A transition that skips a status is rejected and leaves the order unchanged")
+        void updateOrderStatus_IllegalTransition_Throws() {
+            Long id = persistOrders(1, 1).get(0);
+
+            assertThrows(IllegalStateException.class, () -> orderService.updateOrderStatus(id, OrderStatus.SHIPPED));
+            assertEquals(OrderStatus.PENDING, orderRepository.findStatusById(id).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Cancelling an order that has already moved on is rejected even when the cached status is stale")
+        void cancelOrder_AfterConcurrentTransition_Throws() {
+            Long id = persistOrders(1, 1).get(0);
+            orderService.getOrderById(id);
+            orderRepository.compareAndSetStatus(id, OrderStatus.PENDING, OrderStatus.PROCESSING);
+
+            assertThrows(IllegalStateException.class, () -> orderService.cancelOrder(id));
+            assertEquals(OrderStatus.PROCESSING, orderRepository.findStatusById(id).orElseThrow());
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive Tests")
+    class ArchiveTests {
+
+        @Test
+        @DisplayName("Terminal orders move to the archive and are still found by id")
+        void archiveTerminalOrders_MovesOnlyTerminalOrders() {
+            List<Long> ids = persistOrders(3, 2);
+            orderService.updateOrderStatus(ids.get(0), OrderStatus.CANCELLED);
+            orderService.updateOrderStatus(ids.get(1), OrderStatus.PROCESSING);
+
+            assertEquals(1, orderService.archiveTerminalOrders(LocalDateTime.now().plusMinutes(1)));
+            entityManager.clear();
+
+            assertEquals(List.of(ids.get(1), ids.get(2)), orderService.getAllOrders(Optional.empty(), null, 100)
+                    .getOrders().stream().map(order -> order.getOrderId()).toList());
+            assertEquals(OrderStatus.CANCELLED, orderService.getOrderById(ids.get(0)).getStatus());
+            assertEquals(2, orderService.getOrderById(ids.get(0)).getItems().size());
+            assertThrows(IllegalStateException.class, () -> orderService.cancelOrder(ids.get(0)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Statistics Tests")
+    class StatisticsTests {
+
+        @Test
+        @DisplayName("Reconciled statistics match the database and are read without statements")
+        void getOrderStats_AfterReconcile_IssuesNoStatements() {
+            List<Long> ids = persistOrders(3, 2);
+            orderService.updateOrderStatus(ids.get(0), OrderStatus.CANCELLED);
+            orderStatistics.reconcile();
+
+            long statements = statementsFor(() -> {
+                OrderStats stats = orderService.getOrderStats();
+                assertEquals(2L, stats.getOrdersByStatus().get(OrderStatus.PENDING));
+                assertEquals(1L, stats.getOrdersByStatus().get(OrderStatus.CANCELLED));
+                assertEquals(3L, stats.getItemsByProduct().get("Product 0"));
+                assertEquals(6L, stats.getItemsByProduct().get("Product 1"));
+            });
+
+            assertEquals(0, statements);
+        }
+
+        @Test
+        @DisplayName("Reconciling resets products counted in memory but absent from the database to zero")
+        void reconcile_ProductMissingFromDatabase_ResetToZero() {
+            persistOrders(1, 1);
+            OrderResponse phantom = new OrderResponse();
+            phantom.setOrderId(-1L);
+            phantom.setStatus(OrderStatus.PENDING);
+            phantom.setItems(List.of(new ItemDto("Never Persisted", 4)));
+            orderStatistics.onOrderCreated(new OrderCreatedEvent(phantom));
+            assertEquals(4L, orderService.getOrderStats().getItemsByProduct().get("Never Persisted"));
+
+            orderStatistics.reconcile();
+
+            OrderStats stats = orderService.getOrderStats();
+            assertEquals(0L, stats.getItemsByProduct().get("Never Persisted"));
+            assertEquals(1L, stats.getItemsByProduct().get("Product 0"));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.knighteye097.order_processing_system.wire;
+
+import com.knighteye097.order_processing_system.dto.ItemDto;
+import com.knighteye097.order_processing_system.dto.OrderRequest;
+import com.knighteye097.order_processing_system.dto.OrderResponse;
+import com.knighteye097.order_processing_system.entity.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pins the encoding to the byte level, so a change that would break clients generated from orders.proto fails here.
+ */
+class OrderProtobufCodecTest {
+
+    private static byte[] hex(String hex) {
+        return HexFormat.of().parseHex(hex);
+    }
+
+    @Test
+    @DisplayName("OrderRequest encodes to the bytes protoc-generated code produces")
+    void encodeRequest_MatchesWireFormat() {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(new ItemDto("A", 2)));
+
+        // items(1) { product_name(1) = "A", quantity(2) = 2 }
+        assertArrayEquals(hex("0a050a0141" + "1002"), OrderProtobufCodec.encodeRequest(request));
+    }
+
+    @Test
+    @DisplayName("OrderResponse encodes to the bytes protoc-generated code produces")
+    void encodeResponse_MatchesWireFormat() {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(150L);
+        response.setStatus(OrderStatus.SHIPPED);
+        response.setItems(List.of());
+        response.setCreatedAt(LocalDateTime.of(1970, 1, 1, 0, 0, 0, 1000));
+
+        // order_id(1) = 150, status(2) = SHIPPED, created_at_micros(4) = 1
+        assertArrayEquals(hex("089601" + "1003" + "2001"), OrderProtobufCodec.encodeResponse(response));
+    }
+
+    @Test
+    @DisplayName("Decoding skips fields added by a newer schema")
+    void decodeRequest_UnknownFields_AreSkipped() {
+        // items(1) followed by an unknown varint field 15 and an unknown string field 16
+        byte[] bytes = hex("0a050a01411002" + "7801" + "82010178");
+
+        OrderRequest request = OrderProtobufCodec.decodeRequest(bytes);
+
+        assertEquals(List.of(new ItemDto("A", 2)), request.getItems());
+    }
+
+    @Test
+    @DisplayName("Responses round-trip, including negative numbers")
+    void encodeResponses_RoundTrip() {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(7L);
+        response.setStatus(OrderStatus.CANCELLED);
+        response.setItems(List.of(new ItemDto("Lamp", -1), new ItemDto("Desk", 300)));
+        response.setCreatedAt(LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123456000));
+
+        assertEquals(List.of(response, response),
+                OrderProtobufCodec.decodeResponses(OrderProtobufCodec.encodeResponses(List.of(response, response))));
+    }
+
+    @Test
+    @DisplayName("Truncated input is rejected")
+    void decodeRequest_Truncated_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> OrderProtobufCodec.decodeRequest(hex("0a050a01")));
+    }
+}